@@ -0,0 +1,33 @@
+package ai;
+
+import application.BoardView;
+
+/** Interface Bot: <br />
+ * A computer player.  Whenever it is the bot's turn to choose, it is
+ * shown a read-only view of the board and the legal moves (see 
+ * BoardView.generateMoves) and picks one of them.  A bot that looks
+ * ahead does so on a copy of the board (see BoardView.copy).
+ * New bots only need to implement this interface; to use one from the
+ * command line tools, add it to BotFactory.
+ * A bot is used by one thread at a time.  A bot that searches for a
+ * while should give up soon after that thread is interrupted, returning
+ * any of the legal moves.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public interface Bot {
+	
+	/** Method getName: <br />
+	 * @return short name of the bot, for reports
+	 */
+	public String getName();
+	
+	/** Method chooseMove: <br />
+	 * @param board - the game, with the bot's player to move
+	 * @param moves - the legal moves
+	 * @param moveCount - number of legal moves (at least 1)
+	 * @return one of moves[0] to moves[moveCount - 1]
+	 */
+	public int chooseMove(BoardView board, int[] moves, int moveCount);
+}
@@ -0,0 +1,51 @@
+package ai;
+
+import application.GameRandom;
+
+/** Class BotFactory: <br />
+ * Makes bots by name, for command line tools that are told which
+ * bot plays each seat (for example "random,greedy").
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class BotFactory {
+	/** Names of the bots that can be made */
+	public static final String[] NAMES = { "random", "greedy", "mcts", "expectimax" };
+	/** Playouts per move of the "mcts" bot */
+	public static final int MCTS_PLAYOUTS = 2000;
+	/** Search depth of the "expectimax" bot, in half turns */
+	public static final int EXPECTIMAX_DEPTH = 4;
+	
+	/** Method create: <br />
+	 * @param name - one of NAMES
+	 * @param seed - seed for bots that make random choices
+	 * @return a new bot
+	 * @throws IllegalArgumentException - if there is no bot by that name
+	 */
+	public static Bot create(String name, long seed) {
+		if (name.equals("random")) return new RandomBot(new GameRandom(seed));
+		if (name.equals("greedy")) return new GreedyBot();
+		if (name.equals("mcts")) return new MctsBot(MCTS_PLAYOUTS, seed);
+		if (name.equals("expectimax")) return new ExpectimaxBot(EXPECTIMAX_DEPTH);
+		throw new IllegalArgumentException("Unknown bot: " + name);
+	}
+	
+	/** Method createSeats: <br />
+	 * Makes one bot for each seat.  If fewer names than seats are 
+	 * given, the last name fills the remaining seats.
+	 * @param names - comma separated bot names, one per seat
+	 * @param seats - number of players
+	 * @param seed - seed for bots that make random choices
+	 * @return a bot for each seat
+	 */
+	public static Bot[] createSeats(String names, int seats, long seed) {
+		String[] split = names.split(",");
+		Bot[] bots = new Bot[seats];
+		GameRandom seeds = new GameRandom(seed);
+		for (int i = 0; i < seats; i++) {
+			bots[i] = create(split[Math.min(i, split.length - 1)].trim(), seeds.nextLong());
+		}
+		return bots;
+	}
+}
@@ -0,0 +1,425 @@
+package ai;
+
+import application.BoardView;
+import application.GameBoard;
+import application.GameRandom;
+import application.Move;
+import application.NullGameListener;
+import application.PlayerTracker;
+
+/** Class ExpectimaxBot: <br />
+ * Chooses moves by expectiminimax search to a fixed depth: every move
+ * is tried, and after a move that ends a turn every roll of the die is
+ * tried, each roll counting for an equal share of the value.
+ * Depth is counted in half turns (a side move, a forward move, or a placement).
+ * <br />
+ * With more than two players, the search is paranoid: the bot's own
+ * player picks the move best for itself, and every other player is
+ * assumed to pick the move worst for the bot.  So the search is an
+ * alpha-beta search with chance nodes, which are cut off with the
+ * Star1 and Star2 rules (Ballard): the values of the rolls are bounded
+ * (by -WIN and WIN), so after some rolls have been searched the chance
+ * node can be cut off once even the best or worst results for the rest
+ * could not bring it back inside the window; and before that, one move
+ * after each roll is searched (a probe), giving each roll a bound of its
+ * own instead of -WIN or WIN.
+ * <br />
+ * The search is repeated one half turn deeper at a time (iterative
+ * deepening), until the depth limit, or until the time limit runs out
+ * or the thread is interrupted (then the result of the last search that
+ * finished is used).  Results
+ * are kept in a TranspositionTable between searches, which also puts the
+ * best move of the last search first.  The search itself allocates
+ * nothing: it works on one copy of the board, taking every move back
+ * (see GameBoard.makeMove and unmake), with move lists made for each ply in advance.
+ * While other players move, the bot can fill the table in advance (see ponder).
+ * <br />
+ * Only the die is searched as a chance event.  A token that falls into a
+ * worm hole lands where the copy's own generator sends it, so with worm
+ * holes each such move is searched for one of its landing cells.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class ExpectimaxBot implements PonderingBot {
+	/** Value of a won game (a lost game is -WIN); positions are valued between */
+	public static final int WIN = 1000000;
+	/** Deepest search, in half turns */
+	public static final int MAX_DEPTH = TranspositionTable.MAX_DEPTH;
+	/** Value of each turn a player's tokens are expected to need to finish (see FinishTable) */
+	public static final int TURN = 10;
+	/** How much deeper than its own searches the bot ponders, in half turns
+	 * (the other player's side and forward moves) */
+	public static final int PONDER_DEPTH = 2;
+
+	private static final int CHECK_INTERVAL = 1023;	//nodes between looks at the clock, less one
+
+	private int maxDepth;				//depth limit, in half turns
+	private long millisBudget;			//time limit, 0 for none
+	private TranspositionTable table;	//results kept between searches
+	private int tableOwner = -1;		//player the table's values are for
+
+	private GameBoard board;			//copy of the board being searched
+	private int me;						//player the search is for
+	private int[][] moves;				//moves of each ply
+	private long[][] lower, upper;		//bounds on each roll of the chance node at each ply
+	private double[] finishTurns;		//scratch for evaluate
+	private long nodes;					//positions searched
+	private long deadline;				//System.nanoTime() to stop at
+	private boolean stopped;			//the time ran out (or the thread was interrupted) during the search
+	private int rootMove;				//best move of the search at the root
+
+	private long lastNodes;				//positions searched by the last chooseMove
+	private long lastNanos;				//length of the last chooseMove
+	private int lastDepth;				//depth of the last search that finished
+	private int lastValue;				//value of the last search that finished
+
+	/** Constructor: <br />
+	 * Creates a bot that searches to a fixed depth, with a 16 megabyte table.
+	 * Its moves depend only on the position (and on what it searched before).
+	 * @param depth - depth of the search, in half turns
+	 */
+	public ExpectimaxBot(int depth) {
+		this(depth, 0, 16);
+	}
+
+	/** Constructor: <br />
+	 * @param depth - most depth of the search, in half turns (at most MAX_DEPTH)
+	 * @param millis - most milliseconds per move, 0 for no limit
+	 * @param tableMegabytes - size of the transposition table
+	 * @throws IllegalArgumentException - if the depth is out of range
+	 */
+	public ExpectimaxBot(int depth, long millis, int tableMegabytes) {
+		if (depth < 1 || depth > MAX_DEPTH) throw new IllegalArgumentException("Depth must be from 1 to " + MAX_DEPTH);
+		maxDepth = depth;
+		millisBudget = millis;
+		table = new TranspositionTable(tableMegabytes);
+	}
+
+	public String getName() {
+		return "expectimax";
+	}
+
+	public int chooseMove(BoardView position, int[] legalMoves, int moveCount) {
+		if (moveCount == 1) return legalMoves[0];
+		prepare(position, position.getCurrentPlayer());
+
+		long start = System.nanoTime();
+		deadline = millisBudget > 0 ? start + millisBudget * 1000000L : Long.MAX_VALUE;
+		nodes = 0;
+		stopped = false;
+		lastDepth = 0;
+		int best = legalMoves[0];
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			rootMove = Move.NONE;
+			int value = search(0, depth, -WIN, WIN);
+			if (stopped) break;
+			best = rootMove;
+			lastDepth = depth;
+			lastValue = value;
+			if (value == WIN || value == -WIN) break;
+		}
+		lastNanos = System.nanoTime() - start;
+		lastNodes = nodes;
+		board = null;
+		return best;
+	}
+
+	/** Method ponder: <br />
+	 * Searches a position where another player is to move, deeper each
+	 * time, until the search is PONDER_DEPTH half turns deeper than the
+	 * bot's own searches or the thread is interrupted.  Every roll of the
+	 * die after that player's turn is searched, and the results go into
+	 * the table, so the search at the start of the bot's turn finds most
+	 * of its work done.
+	 */
+	public void ponder(BoardView position, int player) {
+		prepare(position, player);
+		deadline = Long.MAX_VALUE;
+		nodes = 0;
+		stopped = false;
+		int depthLimit = Math.min(maxDepth + PONDER_DEPTH, MAX_DEPTH);
+		for (int depth = 1; depth <= depthLimit && !stopped; depth++) {
+			int value = search(0, depth, -WIN, WIN);
+			if (value == WIN || value == -WIN) break;
+		}
+		board = null;
+	}
+
+	/** Method prepare: <br />
+	 * Copies the position to search and makes sure the table and the
+	 * move lists are ready for it.
+	 * @param player - the player the search is for
+	 */
+	private void prepare(BoardView position, int player) {
+		//the die of the copy is replaced at every chance node, so any will do
+		board = position.copy(new NullGameListener(), new GameRandom(0));
+		me = player;
+		if (me != tableOwner) {
+			table.clear();
+			tableOwner = me;
+		}
+		int rows = board.getRows();
+		if (moves == null || moves[0].length < board.getMaxMoveCount() || lower[0].length < rows) {
+			moves = new int[MAX_DEPTH + 1][board.getMaxMoveCount()];
+			lower = new long[MAX_DEPTH + 1][rows];
+			upper = new long[MAX_DEPTH + 1][rows];
+		}
+		if (finishTurns == null || finishTurns.length < board.getTracker().getTokenCount()) {
+			finishTurns = new double[board.getTracker().getTokenCount()];
+		}
+	}
+
+	/** Method search: <br />
+	 * Alpha-beta search of a position where a player is to move.
+	 * @param ply - half turns from the root
+	 * @param depth - half turns left to search
+	 * @return the value of the position for the bot's player, or a bound on
+	 * it if it is outside the window (alpha, beta); 0 if the time ran out
+	 */
+	private int search(int ply, int depth, int alpha, int beta) {
+		if ((++nodes & CHECK_INTERVAL) == 0
+				&& (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) stopped = true;
+		if (stopped) return 0;
+		if (board.getStage() == board.GAME_OVER || depth == 0) return evaluate();
+
+		long hash = board.getHash();
+		long entry = table.probe(hash);
+		int tableMove = Move.NONE;
+		if (entry != 0) {
+			tableMove = TranspositionTable.getMove(entry);
+			if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+				int value = TranspositionTable.getValue(entry);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER && value >= beta)
+						|| (bound == TranspositionTable.UPPER && value <= alpha)) return value;
+			}
+		}
+
+		int[] list = moves[ply];
+		int count = board.generateMoves(list);
+		orderFirst(list, count, tableMove);
+		boolean maximize = board.getCurrentPlayer() == me;
+		int windowAlpha = alpha, windowBeta = beta;
+		int best = maximize ? -WIN - 1 : WIN + 1;
+		int bestMove = Move.NONE;
+		for (int i = 0; i < count; i++) {
+			int value = child(ply, depth, list[i], alpha, beta);
+			if (stopped) return 0;
+			if (maximize ? value > best : value < best) {
+				best = value;
+				bestMove = list[i];
+			}
+			if (maximize) alpha = Math.max(alpha, value);
+			else beta = Math.min(beta, value);
+			if (alpha >= beta) break;
+		}
+
+		int bound = best <= windowAlpha ? TranspositionTable.UPPER
+				: best >= windowBeta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+		table.store(hash, best, bestMove, depth, bound);
+		if (ply == 0) rootMove = bestMove;
+		return best;
+	}
+
+	/** Method child: <br />
+	 * Makes a move, searches the position after it (a chance node if the
+	 * move ends a turn in play), and takes the move back.
+	 * @return value of the move (see search)
+	 */
+	private int child(int ply, int depth, int move, int alpha, int beta) {
+		int turn = board.getTurnCounter();
+		board.makeMove(move);
+		int value;
+		if (board.getTurnCounter() != turn && board.getStage() == board.PLAY) {
+			value = chance(ply + 1, depth - 1, alpha, beta);
+		}
+		else value = search(ply + 1, depth - 1, alpha, beta);
+		board.unmake();
+		return value;
+	}
+
+	/** Method chance: <br />
+	 * Searches every roll of the die for the turn that has just begun,
+	 * each counting 1 / rows of the value, with Star2 probing and Star1 cut offs.
+	 * @return the value (see search)
+	 */
+	private int chance(int ply, int depth, int alpha, int beta) {
+		int rolls = board.getRows();
+		boolean maximize = board.getCurrentPlayer() == me;
+		long[] low = lower[ply];
+		long[] high = upper[ply];
+		for (int r = 0; r < rolls; r++) {
+			low[r] = -WIN;
+			high[r] = WIN;
+		}
+		long lowSum = (long) -WIN * rolls;		//sums of the bounds of every roll
+		long highSum = (long) WIN * rolls;
+
+		//Star2: one move after each roll bounds the roll from the side of the player to move
+		if (depth > 0) {
+			for (int r = 0; r < rolls; r++) {
+				board.mark();
+				board.setForwardRow(r);
+				long value;
+				if (maximize) {
+					value = probe(ply, depth, -WIN, clamp((long) beta * rolls - (lowSum - low[r])));
+					lowSum += value - low[r];
+					low[r] = value;
+				}
+				else {
+					value = probe(ply, depth, clamp((long) alpha * rolls - (highSum - high[r])), WIN);
+					highSum += value - high[r];
+					high[r] = value;
+				}
+				board.unmake();
+				if (stopped) return 0;
+				if (lowSum >= (long) beta * rolls) return (int) (lowSum / rolls);
+				if (highSum <= (long) alpha * rolls) return (int) (highSum / rolls);
+			}
+		}
+
+		//Star1: search each roll with the window that could still change the result
+		long sum = 0;
+		for (int r = 0; r < rolls; r++) {
+			lowSum -= low[r];
+			highSum -= high[r];
+			long childAlpha = (long) alpha * rolls - sum - highSum;
+			long childBeta = (long) beta * rolls - sum - lowSum;
+			if (childAlpha >= high[r]) return (int) ((sum + high[r] + highSum) / rolls);
+			if (childBeta <= low[r]) return (int) ((sum + low[r] + lowSum) / rolls);
+			board.mark();
+			board.setForwardRow(r);
+			int value = search(ply, depth, clamp(childAlpha), clamp(childBeta));
+			board.unmake();
+			if (stopped) return 0;
+			if (value <= childAlpha) return (int) ((sum + value + highSum) / rolls);
+			if (value >= childBeta) return (int) ((sum + value + lowSum) / rolls);
+			sum += value;
+		}
+		return (int) (sum / rolls);
+	}
+
+	/** Method probe: <br />
+	 * Searches only the first move (the table's best move if it has one)
+	 * of the position after a roll: a lower bound on its value if the
+	 * bot's player is to move, an upper bound if an opponent is.
+	 * @return the bound, -WIN or WIN if the search found none
+	 */
+	private int probe(int ply, int depth, int alpha, int beta) {
+		if (board.getStage() == board.GAME_OVER) return evaluate();
+		int[] list = moves[ply];
+		int count = board.generateMoves(list);
+		long entry = table.probe(board.getHash());
+		if (entry != 0) orderFirst(list, count, TranspositionTable.getMove(entry));
+		int value = child(ply, depth, list[0], alpha, beta);
+		//outside the window, the value is only a bound from the other side
+		if (board.getCurrentPlayer() == me) return value <= alpha ? -WIN : value;
+		return value >= beta ? WIN : value;
+	}
+
+	/** Method evaluate: <br />
+	 * Values a position for the bot's player: WIN or -WIN if the game is over,
+	 * otherwise how many turns sooner than the nearest opponent the bot's
+	 * player is expected to win.
+	 */
+	private int evaluate() {
+		PlayerTracker tracker = board.getTracker();
+		if (board.getStage() == board.GAME_OVER && tracker.hasWinner()) {
+			return tracker.getWinner() == me ? WIN : -WIN;
+		}
+		double best = Double.MAX_VALUE;
+		for (int p = 0; p < tracker.getPlayerCount(); p++) {
+			if (p != me) best = Math.min(best, turnsToWin(tracker, p));
+		}
+		return (int) Math.round(TURN * (best - turnsToWin(tracker, me)));
+	}
+
+	/** Method turnsToWin: <br />
+	 * @return the expected turns to finish (see GameBoard.getTurnsToFinish) of
+	 * the player's winCount tokens nearest the finish (or all of them, if
+	 * there are fewer), added up; lost tokens count the table's lost cost
+	 */
+	private double turnsToWin(PlayerTracker tracker, int player) {
+		int tokenCount = tracker.getTokenCount();
+		for (int i = 0; i < tokenCount; i++) {
+			double turns = board.getTurnsToFinish(player * tokenCount + i);
+			//insertion sort, nearest the finish first
+			int j = i;
+			while (j > 0 && finishTurns[j - 1] > turns) {
+				finishTurns[j] = finishTurns[j - 1];
+				j--;
+			}
+			finishTurns[j] = turns;
+		}
+		double total = 0;
+		//a game may ask for more tokens than a player has
+		int counted = Math.min(tracker.getWinCount(), tokenCount);
+		for (int i = 0; i < counted; i++) {
+			total += finishTurns[i];
+		}
+		return total;
+	}
+
+	private static int clamp(long value) {
+		return (int) Math.max(-WIN, Math.min(WIN, value));
+	}
+
+	/** Method orderFirst: <br />
+	 * Moves a move to the front of a move list, if it is in the list.
+	 */
+	private static void orderFirst(int[] list, int count, int move) {
+		if (move == Move.NONE) return;
+		for (int i = 1; i < count; i++) {
+			if (list[i] == move) {
+				list[i] = list[0];
+				list[0] = move;
+				return;
+			}
+		}
+	}
+
+	/** Method setTimeLimit: <br />
+	 * Changes the time limit of the searches that follow.
+	 * @param millis - most milliseconds per move, 0 for no limit
+	 */
+	public void setTimeLimit(long millis) {
+		millisBudget = millis;
+	}
+
+	/** Method getLastNodes: <br />
+	 * @return positions searched for the last move
+	 */
+	public long getLastNodes() {
+		return lastNodes;
+	}
+
+	/** Method getLastDepth: <br />
+	 * @return depth of the deepest search that finished for the last move, 0 if none did
+	 */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	/** Method getLastValue: <br />
+	 * @return value of the last move for the bot's player (see WIN)
+	 */
+	public int getLastValue() {
+		return lastValue;
+	}
+
+	/** Method getLastMillis: <br />
+	 * @return length of the last search in milliseconds
+	 */
+	public double getLastMillis() {
+		return lastNanos / 1e6;
+	}
+
+	/** Method getNodesPerSecond: <br />
+	 * @return positions searched per second for the last move
+	 */
+	public double getNodesPerSecond() {
+		return lastNanos == 0 ? 0 : lastNodes / (lastNanos / 1e9);
+	}
+}
@@ -0,0 +1,58 @@
+package ai;
+
+import application.BoardView;
+import application.Move;
+
+/** Class GreedyBot: <br />
+ * Plays by a fixed set of rules, without looking ahead:
+ * <ul>
+ * <li>Placement: the lowest free row (any legal cell is as good as another).</li>
+ * <li>Side move: move its own token into the forward row, the one 
+ * furthest ahead if there is a choice; otherwise skip.</li>
+ * <li>Forward move: its own token furthest ahead, or if it has none 
+ * in the forward row, the opponent token furthest behind.</li>
+ * </ul>
+ * The same position always gets the same move.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class GreedyBot implements Bot {
+	
+	public String getName() {
+		return "greedy";
+	}
+	
+	public int chooseMove(BoardView board, int[] moves, int moveCount) {
+		int player = board.getCurrentPlayer();
+		int forwardRow = board.getForwardRow();
+		int best = moves[0];
+		int bestScore = Integer.MIN_VALUE;
+		for (int i = 0; i < moveCount; i++) {
+			int move = moves[i];
+			int score;
+			switch (Move.getType(move)) {
+			case Move.UP:
+			case Move.DOWN:
+				score = (Move.getEndRow(move) == forwardRow) ? 1000 + Move.getCol(move) : -1000;
+				break;
+			case Move.SKIP_SIDE:
+				score = 0;
+				break;
+			case Move.FORWARD:
+				int tokenID = board.getTokenAt(Move.getRow(move), Move.getCol(move), 0);
+				if (tokenID / board.getTokenCount() == player) score = 1000 + Move.getCol(move);
+				else score = -Move.getCol(move);
+				break;
+			default:
+				score = -Move.getRow(move);
+				break;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				best = move;
+			}
+		}
+		return best;
+	}
+}
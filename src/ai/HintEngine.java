@@ -0,0 +1,211 @@
+package ai;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import application.BoardView;
+import application.GameBoard;
+import application.GameRandom;
+import application.Move;
+import application.NullGameListener;
+
+/** Class HintEngine: <br />
+ * Suggests a move to a person, always within a time limit.  The work is
+ * done in tiers, each better than the one before, and the hint is the
+ * move of the best tier that finished in time:
+ * <ol>
+ * <li>HEURISTIC: the rules of GreedyBot, at once.</li>
+ * <li>SEARCH: a shallow expectiminimax search (see ExpectimaxBot), for
+ * part of the time, as deep as it gets.</li>
+ * <li>SAMPLING: Monte Carlo tree search (see MctsBot) for the rest of the
+ * time, used if it made enough playouts to tell the moves apart.</li>
+ * </ol>
+ * The search and the sampling run on a thread of the engine, on a copy of
+ * the board.  The caller only waits for that thread until just before the
+ * time limit, then takes the best move so far and calls the thread off,
+ * so the limit holds however long a tier takes.
+ * An engine is used by one thread at a time.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class HintEngine {
+	/** Tier of a hint: no move (the game is over) */
+	public static final int NONE = 0;
+	/** Tier of a hint: the rules of GreedyBot (or the only legal move) */
+	public static final int HEURISTIC = 1;
+	/** Tier of a hint: expectiminimax search */
+	public static final int SEARCH = 2;
+	/** Tier of a hint: Monte Carlo tree search */
+	public static final int SAMPLING = 3;
+	/** Names of the tiers */
+	public static final String[] TIER_NAMES = { "none", "heuristic", "search", "sampling" };
+
+	/** Time limit for hints shown to players, in milliseconds */
+	public static final long HINT_MILLIS = 90;
+	/** Share of the time given to the search; the sampling gets the rest */
+	public static final double SEARCH_SHARE = 0.4;
+	/** Playouts the sampling needs for each legal move before its move is used */
+	public static final int SAMPLES_PER_MOVE = 30;
+
+	private static final long MARGIN_NANOS = 2000000;		//time kept back for handing over the hint
+	private static final int TABLE_MEGABYTES = 4;
+
+	private GreedyBot heuristic;
+	private ExpectimaxBot searcher;
+	private MctsBot sampler;
+	private ExecutorService worker;		//runs the search and the sampling
+
+	private int lastTier;				//tier of the last hint
+	private long lastNanos;				//time taken by the last hint
+
+	/** Constructor: <br />
+	 * @param seed - seed for the sampling
+	 */
+	public HintEngine(long seed) {
+		heuristic = new GreedyBot();
+		searcher = new ExpectimaxBot(ExpectimaxBot.MAX_DEPTH, 1, TABLE_MEGABYTES);
+		sampler = new MctsBot(1, 0, 1, seed);
+		worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "hint");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/** Method suggestMove: <br />
+	 * Finds the best move it can for the player to move.
+	 * @param board - the game (only read before this returns)
+	 * @param deadlineMillis - time limit in milliseconds; the hint is
+	 * returned by then, as long as the limit is more than a millisecond or two
+	 * @return a legal move, or Move.NONE if the game is over
+	 */
+	public int suggestMove(BoardView board, long deadlineMillis) {
+		long start = System.nanoTime();
+		long deadline = start + deadlineMillis * 1000000L;
+		int[] moves = new int[board.getMaxMoveCount()];
+		int count = board.generateMoves(moves);
+		if (count == 0) {
+			lastTier = NONE;
+			lastNanos = System.nanoTime() - start;
+			return Move.NONE;
+		}
+
+		Hint hint = new Hint(heuristic.chooseMove(board, moves, count), HEURISTIC);
+		if (count > 1) {
+			//the other tiers work on a copy, since the board may change once this returns
+			GameBoard position = board.copy(new NullGameListener(), new GameRandom(0));
+			Future<?> work = worker.submit(new Tiers(position, moves, count, deadline - 2 * MARGIN_NANOS, hint));
+			try {
+				work.get(deadline - MARGIN_NANOS - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+			catch (TimeoutException te) {
+				//take what has been found so far
+			}
+			catch (ExecutionException ee) {
+				//a tier failed: take what was found before it
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			work.cancel(true);
+		}
+		synchronized (hint) {
+			lastTier = hint.tier;
+			lastNanos = System.nanoTime() - start;
+			return hint.move;
+		}
+	}
+
+	/** Method getLastTier: <br />
+	 * @return tier of the last hint (HEURISTIC, SEARCH, SAMPLING, or NONE)
+	 */
+	public int getLastTier() {
+		return lastTier;
+	}
+
+	/** Method getLastMillis: <br />
+	 * @return milliseconds the last hint took
+	 */
+	public double getLastMillis() {
+		return lastNanos / 1e6;
+	}
+
+	/** Method getLastSearchDepth: <br />
+	 * @return depth, in half turns, of the last search that finished in time
+	 */
+	public int getLastSearchDepth() {
+		return searcher.getLastDepth();
+	}
+
+	/** Method close: <br />
+	 * Stops the engine's thread
+	 */
+	public void close() {
+		worker.shutdownNow();
+		sampler.close();
+	}
+
+	/** Class Hint: <br />
+	 * The best move found so far, and the tier that found it.
+	 */
+	private static class Hint {
+		int move;
+		int tier;
+
+		Hint(int move, int tier) {
+			this.move = move;
+			this.tier = tier;
+		}
+
+		synchronized void set(int move, int tier) {
+			this.move = move;
+			this.tier = tier;
+		}
+	}
+
+	/** Class Tiers: <br />
+	 * The search, then the sampling, each improving the hint if it finishes
+	 * in time; given up when the thread is interrupted.
+	 */
+	private class Tiers implements Runnable {
+		private GameBoard position;
+		private int[] moves;
+		private int count;
+		private long end;			//System.nanoTime() to be done by
+		private Hint hint;
+
+		Tiers(GameBoard position, int[] moves, int count, long end, Hint hint) {
+			this.position = position;
+			this.moves = moves;
+			this.count = count;
+			this.end = end;
+			this.hint = hint;
+		}
+
+		public void run() {
+			long millis = (long) ((end - System.nanoTime()) / 1e6 * SEARCH_SHARE);
+			if (millis < 1) return;
+			searcher.setTimeLimit(millis);
+			int move = searcher.chooseMove(position, moves, count);
+			if (Thread.currentThread().isInterrupted()) return;
+			if (searcher.getLastDepth() > 0) hint.set(move, SEARCH);
+
+			millis = (end - System.nanoTime()) / 1000000;
+			if (millis < 1) return;
+			sampler.setTimeLimit(millis);
+			move = sampler.chooseMove(position, moves, count);
+			if (Thread.currentThread().isInterrupted()) return;
+			if (sampler.getLastPlayouts() + sampler.getLastReused() >= SAMPLES_PER_MOVE * count) {
+				hint.set(move, SAMPLING);
+			}
+		}
+	}
+}
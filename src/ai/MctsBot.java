@@ -0,0 +1,534 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import application.BoardView;
+import application.GameBoard;
+import application.GameRandom;
+import application.Move;
+import application.NullGameListener;
+
+/** Class MctsBot: <br />
+ * Chooses moves by Monte Carlo tree search: random games (playouts) are
+ * played from the position, and a tree of the positions they pass through
+ * keeps, for each move, how often the player who made it went on to win.
+ * Moves are picked in the tree by UCT, which balances moves that have
+ * won often against moves that have been tried little.
+ * <br />
+ * Each half of a turn is a level of the tree: the side move (or skipping it),
+ * then the forward move, or a placement during the placement stage.
+ * A move that ends a turn in the play stage leads to a chance node, with
+ * a child for each roll of the die that has come up in the search; the
+ * playouts roll the die at random, so each roll is followed as often
+ * as it comes up.  A move into a worm hole leads to a chance node too,
+ * since the board picks where the token comes out: the children of a
+ * chance node are the positions that have come up after it, whatever
+ * made them differ.
+ * <br />
+ * Several threads search the same tree, each on its own copy of the board.
+ * A thread going down the tree counts its visit at once and its result
+ * when the playout is done, so until then the moves it took look like
+ * losses (virtual loss) and the other threads look elsewhere.
+ * The subtree of the chosen move is kept, and the next search starts from
+ * the node of the position it is given, if that position is in the subtree.
+ * <br />
+ * A search stops after a number of playouts, after a number of milliseconds,
+ * or at whichever of the two comes first; and at once if the calling
+ * thread is interrupted.
+ * <br />
+ * While other players move, the bot can grow the tree from their
+ * position (see ponder), which holds every roll of the die after their
+ * turn.  Once a bot has pondered, the playouts already made through the
+ * position it is given (while pondering, or by its own search of the
+ * half turn before) count towards its playout budget, so its searches
+ * are shorter (or not needed at all) and cost no more than without pondering.  With
+ * only a time limit, the search takes its full time, starting from the
+ * pondered tree.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class MctsBot implements PonderingBot {
+	/** Playouts are stopped after this many turns and scored as a draw */
+	public static final int PLAYOUT_TURNS = 1000;
+	/** Weight of the exploration term of UCT (results are from 0 to 1) */
+	public static final double EXPLORATION = 0.7;
+	/** Pondering stops once the position has this many times the playouts of a move */
+	public static final int PONDER_FACTOR = 16;
+	/** Playouts of a move assumed for pondering, by a bot with only a time limit that has not searched yet */
+	public static final int PONDER_PLAYOUTS = 1000;
+
+	private int threads;				//threads searching the tree
+	private int playoutBudget;			//playouts per search, 0 for no limit
+	private long millisBudget;			//milliseconds per search, 0 for no limit
+	private GameRandom random;			//seeds each search thread's dice and playouts
+	private ExecutorService pool;		//search threads besides the caller, created when first needed
+
+	private Node root;					//tree kept from the last search
+	private int lastPlayouts;			//playouts of the last search
+	private long lastNanos;				//length of the last search
+	private int lastReused;				//playouts kept from the search before it
+	private boolean pondering;			//the bot ponders, so playouts kept in the tree count towards the budget
+
+	/** Constructor: <br />
+	 * Creates a bot that searches on one thread for the given number of playouts.
+	 * @param playouts - playouts per move
+	 * @param seed - seed for the search
+	 */
+	public MctsBot(int playouts, long seed) {
+		this(1, playouts, 0, seed);
+	}
+
+	/** Constructor: <br />
+	 * @param threads - threads searching the tree (at least 1)
+	 * @param playouts - most playouts per move, 0 for no limit
+	 * @param millis - most milliseconds per move, 0 for no limit
+	 * @param seed - seed for the search
+	 * @throws IllegalArgumentException - if there are no threads, or the search has no limit
+	 */
+	public MctsBot(int threads, int playouts, long millis, long seed) {
+		if (threads < 1) throw new IllegalArgumentException("A search needs at least one thread");
+		if (playouts <= 0 && millis <= 0) throw new IllegalArgumentException("A search needs a playout or time limit");
+		this.threads = threads;
+		this.playoutBudget = playouts;
+		this.millisBudget = millis;
+		random = new GameRandom(seed);
+	}
+
+	public String getName() {
+		return "mcts";
+	}
+
+	public int chooseMove(BoardView board, int[] moves, int moveCount) {
+		if (moveCount == 1) return moves[0];
+
+		GameBoard[] copies = copyBoard(board);
+		lastReused = root.visits;
+
+		//a pondering bot counts the playouts already made through the position
+		int done = (pondering && playoutBudget > 0) ? Math.min(root.visits, playoutBudget) : 0;
+		long start = System.nanoTime();
+		long deadline = millisBudget > 0 ? start + millisBudget * 1000000L : Long.MAX_VALUE;
+		lastPlayouts = search(copies, done, playoutBudget, deadline);
+		lastNanos = System.nanoTime() - start;
+
+		Node best = null;
+		Node[] children = root.children;
+		if (children != null) {
+			for (int i = 0; i < children.length; i++) {
+				if (!isListed(children[i].move, moves, moveCount)) continue;
+				if (best == null || children[i].visits > best.visits) best = children[i];
+			}
+		}
+		if (best == null) {
+			root = null;
+			return moves[0];
+		}
+		root = best;
+		return best.move;
+	}
+
+	/** Method ponder: <br />
+	 * Grows the tree from the position until the thread is interrupted,
+	 * or until the position has PONDER_FACTOR times the playouts of a move.
+	 */
+	public void ponder(BoardView board, int player) {
+		GameBoard[] copies = copyBoard(board);
+		pondering = true;
+		int perMove = playoutBudget > 0 ? playoutBudget : (lastPlayouts > 0 ? lastPlayouts : PONDER_PLAYOUTS);
+		if (root.visits < PONDER_FACTOR * perMove) {
+			search(copies, root.visits, PONDER_FACTOR * perMove, Long.MAX_VALUE);
+		}
+	}
+
+	/** Method copyBoard: <br />
+	 * Makes a copy of the board for each search thread, and moves the
+	 * root of the tree to the board's position (a new tree if the position
+	 * is not in the kept one).
+	 * @return the copies
+	 */
+	private GameBoard[] copyBoard(BoardView board) {
+		GameBoard[] copies = new GameBoard[threads];
+		for (int t = 0; t < threads; t++) {
+			copies[t] = board.copy(new NullGameListener(), random.split());
+		}
+		long key = positionKey(copies[0]);
+		root = findPosition(root, key);
+		if (root == null) root = new Node(Move.NONE, -1, key, false);
+		return copies;
+	}
+
+	/** Method search: <br />
+	 * Runs the search threads (the calling thread is one of them) until the budget is spent.
+	 * @param done - playouts already counted towards the budget
+	 * @param budget - playouts to stop at, 0 for no limit
+	 * @return number of playouts made
+	 */
+	private int search(GameBoard[] copies, int done, int budget, long deadline) {
+		AtomicInteger claimed = new AtomicInteger(done);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		if (threads > 1 && pool == null) pool = Executors.newFixedThreadPool(threads - 1, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "mcts");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		for (int t = 1; t < threads; t++) {
+			results.add(pool.submit(new Searcher(copies[t], claimed, budget, deadline)));
+		}
+		int playouts = new Searcher(copies[0], claimed, budget, deadline).call();
+		try {
+			for (int t = 0; t < results.size(); t++) {
+				if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+				playouts += results.get(t).get();
+			}
+		}
+		catch (InterruptedException ie) {
+			//the search was called off: stop the other threads too
+			for (int t = 0; t < results.size(); t++) {
+				results.get(t).cancel(true);
+			}
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("Search failed: " + ee.getCause());
+		}
+		return playouts;
+	}
+
+	/** Method findPosition: <br />
+	 * Looks through a kept tree, nearest levels first, for a position.
+	 * @param tree - the tree, or null
+	 * @param key - the position (see positionKey)
+	 * @return the node of the position, or null if it is not in the tree
+	 */
+	private static Node findPosition(Node tree, long key) {
+		if (tree == null) return null;
+		List<Node> level = new ArrayList<Node>();
+		List<Node> next = new ArrayList<Node>();
+		level.add(tree);
+		while (!level.isEmpty()) {
+			for (int i = 0; i < level.size(); i++) {
+				Node node = level.get(i);
+				if (!node.chance && node.hash == key) return node;
+				Node[] children = node.chance ? node.outcomeArray() : node.children;
+				if (children == null) continue;
+				for (int j = 0; j < children.length; j++) {
+					if (children[j] != null) next.add(children[j]);
+				}
+			}
+			List<Node> swap = level;
+			level = next;
+			next = swap;
+			next.clear();
+		}
+		return null;
+	}
+
+	/** Method isListed: <br />
+	 * @return true if the move is one of the first count moves
+	 */
+	private static boolean isListed(int move, int[] moves, int count) {
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) return true;
+		}
+		return false;
+	}
+
+	/** Method landsInWormHole: <br />
+	 * @return true if the move takes a token into a worm hole, where
+	 * the board picks at random where it comes out
+	 */
+	private static boolean landsInWormHole(GameBoard board, int move) {
+		if (board.getPitMode() != board.WORM_HOLES) return false;
+		int type = Move.getType(move);
+		if (type == Move.SKIP_SIDE) return false;
+		int row = (type == Move.UP || type == Move.DOWN) ? Move.getEndRow(move) : Move.getRow(move);
+		int col = (type == Move.FORWARD) ? Move.getCol(move) + 1 : Move.getCol(move);
+		return !board.isCellEnabled(row, col);
+	}
+
+	/** Method positionKey: <br />
+	 * @return the hash of the board, leaving out the die roll during
+	 * placement and once the game is over (it is rolled, but means nothing
+	 * until play starts, or after the last move)
+	 */
+	private static long positionKey(GameBoard board) {
+		if (board.getStage() == board.PLAY || board.getForwardRow() == 0) return board.getHash();
+		board.mark();
+		board.setForwardRow(0);
+		long key = board.getHash();
+		board.unmake();
+		return key;
+	}
+
+	/** Method setTimeLimit: <br />
+	 * Changes the time limit of the searches that follow.
+	 * @param millis - most milliseconds per move, 0 for no limit
+	 * @throws IllegalArgumentException - if the search would have no limit
+	 */
+	public void setTimeLimit(long millis) {
+		if (playoutBudget <= 0 && millis <= 0) throw new IllegalArgumentException("A search needs a playout or time limit");
+		millisBudget = millis;
+	}
+
+	/** Method getLastPlayouts: <br />
+	 * @return playouts of the last search
+	 */
+	public int getLastPlayouts() {
+		return lastPlayouts;
+	}
+
+	/** Method getLastReused: <br />
+	 * @return playouts of earlier searches that the last search started with
+	 */
+	public int getLastReused() {
+		return lastReused;
+	}
+
+	/** Method getLastMillis: <br />
+	 * @return length of the last search in milliseconds
+	 */
+	public double getLastMillis() {
+		return lastNanos / 1e6;
+	}
+
+	/** Method getPlayoutsPerSecond: <br />
+	 * @return playouts per second of the last search, all threads together
+	 */
+	public double getPlayoutsPerSecond() {
+		return lastNanos == 0 ? 0 : lastPlayouts / (lastNanos / 1e9);
+	}
+
+	/** Method getPlayoutsPerSecondPerCore: <br />
+	 * @return playouts per second of the last search, for each search thread
+	 */
+	public double getPlayoutsPerSecondPerCore() {
+		return getPlayoutsPerSecond() / threads;
+	}
+
+	/** Method getThreads: <br />
+	 * @return threads searching the tree
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/** Method close: <br />
+	 * Stops the search threads and forgets the kept tree
+	 */
+	public void close() {
+		if (pool != null) pool.shutdownNow();
+		pool = null;
+		root = null;
+	}
+
+	/** Class Node: <br />
+	 * A position in the tree, reached by a move (or, below a chance
+	 * node, by a roll of the die or a worm hole).  Results are counted
+	 * for the player who made the move.
+	 */
+	private static class Node {
+		final int move;				//move that leads here, or the roll below a chance node
+		final int player;			//player who made the move
+		final long hash;			//key of the position (see positionKey), 0 for a chance node
+		final boolean chance;		//the die is rolled after this move, or it lands in a worm hole
+		volatile int visits;		//playouts through this node, including ones not finished
+		volatile double reward;		//results of the finished playouts
+		volatile Node[] children;	//a node for each legal move, once expanded
+		private Node[] outcomes;	//a node for each position that has followed a chance node
+		private int outcomeCount;
+
+		Node(int move, int player, long hash, boolean chance) {
+			this.move = move;
+			this.player = player;
+			this.hash = hash;
+			this.chance = chance;
+		}
+
+		synchronized void addVisit() {
+			visits++;
+		}
+
+		synchronized void addReward(double result) {
+			reward += result;
+		}
+
+		/** Method outcome: <br />
+		 * @return the node below this chance node for the position the
+		 * board shows (its roll of the die, and where a worm hole sent a token)
+		 */
+		synchronized Node outcome(GameBoard board) {
+			long key = positionKey(board);
+			for (int i = 0; i < outcomeCount; i++) {
+				if (outcomes[i].hash == key) return outcomes[i];
+			}
+			if (outcomes == null) outcomes = new Node[board.getRows()];
+			if (outcomeCount == outcomes.length) outcomes = Arrays.copyOf(outcomes, outcomeCount * 2);
+			Node node = new Node(board.getForwardRow(), player, key, false);
+			outcomes[outcomeCount++] = node;
+			return node;
+		}
+
+		synchronized Node[] outcomeArray() {
+			return outcomes == null ? null : Arrays.copyOf(outcomes, outcomeCount);
+		}
+	}
+
+	/** Class Searcher: <br />
+	 * One search thread: plays out from the root on its own board
+	 * until the budget is spent, taking the board back after each playout.
+	 */
+	private class Searcher implements Callable<Integer> {
+		private GameBoard board;
+		private AtomicInteger claimed;	//playouts started by all threads
+		private int budget;				//playouts to stop at, 0 for no limit
+		private long deadline;
+		private Random rng;
+		private int[] moves;
+		private Node[] path;
+
+		Searcher(GameBoard board, AtomicInteger claimed, int budget, long deadline) {
+			this.board = board;
+			this.claimed = claimed;
+			this.budget = budget;
+			this.deadline = deadline;
+			rng = random.split();
+			moves = new int[board.getMaxMoveCount()];
+			path = new Node[64];
+		}
+
+		public Integer call() {
+			int playouts = 0;
+			while ((budget <= 0 || claimed.getAndIncrement() < budget)
+					&& (deadline == Long.MAX_VALUE || System.nanoTime() < deadline)
+					&& !Thread.currentThread().isInterrupted()) {
+				board.mark();
+				int length = descend();
+				int winner = playout();
+				board.unmake();
+
+				double draw = 1.0 / board.getTracker().getPlayerCount();
+				for (int i = 0; i < length; i++) {
+					path[i].addReward(winner < 0 ? draw : (path[i].player == winner ? 1 : 0));
+				}
+				playouts++;
+			}
+			return playouts;
+		}
+
+		/** Method descend: <br />
+		 * Follows UCT down the tree, making the moves on the board, and
+		 * expands the node it stops at if it has been visited before.
+		 * @return number of nodes on the path
+		 */
+		private int descend() {
+			Node node = root;
+			int length = 0;
+			node.addVisit();
+			path[length++] = node;
+			while (board.getStage() != board.GAME_OVER) {
+				Node[] children = node.children;
+				if (children == null) {
+					if (node != root && node.visits < 2) break;
+					children = expand(node);
+				}
+				node = select(node, children);
+				//a move the tree holds that can't be made here: play out from this position
+				if (!board.applyMove(node.move)) break;
+				node.addVisit();
+				path = add(path, length++, node);
+				if (node.chance) {
+					node = node.outcome(board);
+					node.addVisit();
+					path = add(path, length++, node);
+				}
+				//a position other than the one the node holds: play out from it
+				else if (positionKey(board) != node.hash) break;
+			}
+			return length;
+		}
+
+		/** Method expand: <br />
+		 * Gives a node a child for each legal move (unless another thread
+		 * did it first), making each move to see whether the die is rolled
+		 * (or a worm hole is entered) after it.
+		 */
+		private Node[] expand(Node node) {
+			int count = board.generateMoves(moves);
+			int player = board.getCurrentPlayer();
+			Node[] children = new Node[count];
+			for (int i = 0; i < count; i++) {
+				int turn = board.getTurnCounter();
+				boolean worm = landsInWormHole(board, moves[i]);
+				board.makeMove(moves[i]);
+				boolean chance = worm || (board.getTurnCounter() != turn && board.getStage() == board.PLAY);
+				children[i] = new Node(moves[i], player, chance ? 0 : positionKey(board), chance);
+				board.unmake();
+			}
+			synchronized (node) {
+				if (node.children == null) node.children = children;
+				return node.children;
+			}
+		}
+
+		/** Method select: <br />
+		 * @return the child with the best UCT score, or the first child not yet visited
+		 */
+		private Node select(Node node, Node[] children) {
+			double logVisits = Math.log(Math.max(node.visits, 1));
+			Node best = children[0];
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < children.length; i++) {
+				Node child = children[i];
+				int visits = child.visits;
+				if (visits == 0) return child;
+				double score = child.reward / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+				if (score > bestScore) {
+					bestScore = score;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		/** Method playout: <br />
+		 * Plays random moves to the end of the game.
+		 * @return the winner, or -1 if the playout was stopped first
+		 */
+		private int playout() {
+			int firstTurn = board.getTurnCounter();
+			while (board.getStage() != board.GAME_OVER && board.getTurnCounter() - firstTurn < PLAYOUT_TURNS) {
+				int count = board.generateMoves(moves);
+				board.applyMove(moves[rng.nextInt(count)]);
+			}
+			if (board.getStage() != board.GAME_OVER || !board.getTracker().hasWinner()) return -1;
+			return board.getTracker().getWinner();
+		}
+	}
+
+	/** Method add: <br />
+	 * Stores a node on a path, growing the path if it is full.
+	 * @return the path
+	 */
+	private static Node[] add(Node[] path, int length, Node node) {
+		if (length == path.length) {
+			Node[] grown = new Node[path.length * 2];
+			System.arraycopy(path, 0, grown, 0, length);
+			path = grown;
+		}
+		path[length] = node;
+		return path;
+	}
+}
@@ -0,0 +1,27 @@
+package ai;
+
+import application.BoardView;
+
+/** Interface PonderingBot: <br />
+ * A bot that can use the other players' turns to think ahead.  While
+ * another player is choosing a move, the game may call ponder with the
+ * position on the board; the bot searches it (every roll of the die that
+ * can follow included) and keeps what it finds, so that when its own
+ * turn comes its search has less left to do.  Pondering never makes a
+ * move, and the bot's own searches cost no more than without it.
+ * <br />
+ * ponder runs until the calling thread is interrupted, or until the bot
+ * has nothing more worth searching.  Like chooseMove, it must not be
+ * called from two threads at once.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public interface PonderingBot extends Bot {
+	
+	/** Method ponder: <br />
+	 * @param board - the game, with a player other than the bot's to move
+	 * @param player - playerID of the bot's seat
+	 */
+	public void ponder(BoardView board, int player);
+}
@@ -0,0 +1,30 @@
+package ai;
+
+import java.util.Random;
+
+import application.BoardView;
+
+/** Class RandomBot: <br />
+ * Plays a uniformly random legal move.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class RandomBot implements Bot {
+	private Random random;
+	
+	/** Constructor: <br />
+	 * @param random - source of the bot's choices
+	 */
+	public RandomBot(Random random) {
+		this.random = random;
+	}
+	
+	public String getName() {
+		return "random";
+	}
+	
+	public int chooseMove(BoardView board, int[] moves, int moveCount) {
+		return moves[random.nextInt(moveCount)];
+	}
+}
@@ -0,0 +1,148 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import application.Move;
+
+/** Class TranspositionTable: <br />
+ * A fixed size table of search results, indexed by board hash
+ * (see GameBoard.getHash), that any number of search threads can
+ * share without locking.
+ * <br />
+ * Each entry is two longs: the hash exclusive or'ed with the data,
+ * and the data itself.  A reader only accepts an entry if the two
+ * agree, so an entry torn by two threads writing at once simply
+ * reads as a miss instead of returning another position's result.
+ * The data packs a bound type, a search depth, a best move, and a value:
+ * <pre>
+ *   bits  0-1   bound (0 for no entry, EXACT, LOWER, or UPPER)
+ *   bits  2-7   depth searched (0 to 63)
+ *   bits  8-31  best move (see Move), or all ones for Move.NONE
+ *   bits 32-63  value
+ * </pre>
+ * Entries come in pairs: the first keeps the deepest result seen
+ * for its positions, the second always takes the newest one.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class TranspositionTable {
+	/** The value is exact */
+	public static final int EXACT = 1;
+	/** The value is at least the stored value (the search failed high) */
+	public static final int LOWER = 2;
+	/** The value is at most the stored value (the search failed low) */
+	public static final int UPPER = 3;
+	/** Deepest depth that can be stored */
+	public static final int MAX_DEPTH = 63;
+
+	private static final int MOVE_MASK = 0xFFFFFF;
+
+	private AtomicLongArray table;		//pairs of (hash ^ data, data), two entries per bucket
+	private int bucketMask;				//bucket count - 1
+
+	/** Constructor: <br />
+	 * @param megabytes - approximate size of the table, rounded down
+	 * to a power of two (at least one bucket)
+	 */
+	public TranspositionTable(int megabytes) {
+		long buckets = Math.max(1, ((long) megabytes << 20) / 32);
+		int bits = 63 - Long.numberOfLeadingZeros(buckets);
+		bucketMask = (1 << Math.min(bits, 26)) - 1;
+		table = new AtomicLongArray((bucketMask + 1) * 4);
+	}
+
+	/** Method probe: <br />
+	 * @param hash - board hash
+	 * @return the data stored for the position, or 0 if there is none.
+	 * Use getBound, getDepth, getMove and getValue to read it.
+	 */
+	public long probe(long hash) {
+		int i = bucket(hash);
+		for (int slot = 0; slot < 4; slot += 2) {
+			long data = table.get(i + slot + 1);
+			if ((table.get(i + slot) ^ data) == hash && data != 0) return data;
+		}
+		return 0;
+	}
+
+	/** Method store: <br />
+	 * Saves a search result for a position.
+	 * @param hash - board hash
+	 * @param value - value found for the position
+	 * @param move - best move found, or Move.NONE
+	 * @param depth - depth searched (limited to MAX_DEPTH)
+	 * @param bound - EXACT, LOWER, or UPPER
+	 */
+	public void store(long hash, int value, int move, int depth, int bound) {
+		long data = pack(value, move, depth, bound);
+		int i = bucket(hash);
+		long deepData = table.get(i + 1);
+		boolean samePosition = (table.get(i) ^ deepData) == hash;
+		if (deepData == 0 || samePosition || getDepth(deepData) <= getDepth(data)) {
+			table.set(i, hash ^ data);
+			table.set(i + 1, data);
+		}
+		else {
+			table.set(i + 2, hash ^ data);
+			table.set(i + 3, data);
+		}
+	}
+
+	/** Method clear: <br />
+	 * Removes every entry (not safe while other threads are storing)
+	 */
+	public void clear() {
+		for (int i = 0; i < table.length(); i++) {
+			table.set(i, 0);
+		}
+	}
+
+	/** Method getBucketCount: <br />
+	 * @return number of buckets (two entries each)
+	 */
+	public int getBucketCount() {
+		return bucketMask + 1;
+	}
+
+	/** Method pack: <br />
+	 * @return the data word for a result
+	 */
+	public static long pack(int value, int move, int depth, int bound) {
+		long moveBits = (move == Move.NONE) ? MOVE_MASK : (move & MOVE_MASK);
+		return ((long) value << 32) | (moveBits << 8) | (Math.min(depth, MAX_DEPTH) << 2) | bound;
+	}
+
+	/** Method getBound: <br />
+	 * @return EXACT, LOWER, UPPER, or 0 for no entry
+	 */
+	public static int getBound(long data) {
+		return (int) (data & 3);
+	}
+
+	/** Method getDepth: <br />
+	 * @return depth searched
+	 */
+	public static int getDepth(long data) {
+		return (int) (data >>> 2) & MAX_DEPTH;
+	}
+
+	/** Method getMove: <br />
+	 * @return best move, or Move.NONE
+	 */
+	public static int getMove(long data) {
+		int move = (int) (data >>> 8) & MOVE_MASK;
+		return (move == MOVE_MASK) ? Move.NONE : move;
+	}
+
+	/** Method getValue: <br />
+	 * @return value stored
+	 */
+	public static int getValue(long data) {
+		return (int) (data >>> 32);
+	}
+
+	private int bucket(long hash) {
+		return ((int) (hash ^ (hash >>> 32)) & bucketMask) * 4;
+	}
+}
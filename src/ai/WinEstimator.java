@@ -0,0 +1,236 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import application.BoardView;
+import application.GameBoard;
+import application.GameRandom;
+import application.NullGameListener;
+
+/** Class WinEstimator: <br />
+ * Estimates each player's chance of winning from a position by playing
+ * it out at random (rollouts), over and over, on several threads.
+ * Each thread plays on its own copy of the board, made when the
+ * estimate is started, so the game itself is never touched, and takes
+ * the copy back after each rollout (see GameBoard.mark and unmake).
+ * <br />
+ * The rollouts run in the background until the estimate is stopped, a
+ * new one is started, or MAX_ROLLOUTS are done.  The results so far can
+ * be read at any time (see getEstimate), as often as the reader likes:
+ * the threads add their results in batches, and reading costs the same
+ * however many rollouts are made.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class WinEstimator {
+	/** Rollouts of a position, after which the estimate stops */
+	public static final int MAX_ROLLOUTS = 100000;
+	/** Rollouts are stopped after this many turns and count as won by nobody */
+	public static final int ROLLOUT_TURNS = MctsBot.PLAYOUT_TURNS;
+	/** Normal quantile for 95% confidence intervals */
+	public static final double Z95 = 1.96;
+
+	private static final int BATCH = 32;		//rollouts a thread makes before adding them to the results
+
+	private int threads;				//threads making rollouts
+	private GameRandom random;			//seeds each thread's dice and moves
+	private ExecutorService pool;		//the threads
+	private Run run;					//the estimate in progress, or the last one
+
+	/** Constructor: <br />
+	 * @param threads - threads making rollouts (at least 1)
+	 * @param seed - seed for the rollouts
+	 */
+	public WinEstimator(int threads, long seed) {
+		if (threads < 1) throw new IllegalArgumentException("An estimate needs at least one thread");
+		this.threads = threads;
+		random = new GameRandom(seed);
+		pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "estimate");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/** Method start: <br />
+	 * Stops the estimate in progress and starts estimating the position
+	 * on the board (copied before this returns).
+	 * @param board - the game
+	 */
+	public synchronized void start(BoardView board) {
+		stop();
+		run = new Run(board.getPlayerCount());
+		for (int t = 0; t < threads; t++) {
+			GameBoard copy = board.copy(new NullGameListener(), random.split());
+			run.futures.add(pool.submit(new Roller(copy, run, random.split())));
+		}
+	}
+
+	/** Method stop: <br />
+	 * Stops the estimate in progress, keeping its results
+	 */
+	public synchronized void stop() {
+		if (run == null) return;
+		for (int i = 0; i < run.futures.size(); i++) {
+			run.futures.get(i).cancel(true);
+		}
+	}
+
+	/** Method getEstimate: <br />
+	 * @return the results of the estimate so far, or null if none was started
+	 */
+	public synchronized Estimate getEstimate() {
+		if (run == null) return null;
+		synchronized (run) {
+			return new Estimate(run.rollouts, run.wins.clone());
+		}
+	}
+
+	/** Method close: <br />
+	 * Stops the estimate and the threads
+	 */
+	public synchronized void close() {
+		stop();
+		pool.shutdownNow();
+	}
+
+	/** Class Estimate: <br />
+	 * The results of an estimate at one moment.
+	 */
+	public static class Estimate {
+		private int rollouts;
+		private int[] wins;
+
+		Estimate(int rollouts, int[] wins) {
+			this.rollouts = rollouts;
+			this.wins = wins;
+		}
+
+		/** Method getRollouts: <br />
+		 * @return rollouts made
+		 */
+		public int getRollouts() {
+			return rollouts;
+		}
+
+		/** Method getWinRate: <br />
+		 * @return share of the rollouts the player won, 0 if there are none
+		 */
+		public double getWinRate(int player) {
+			return rollouts == 0 ? 0 : (double) wins[player] / rollouts;
+		}
+
+		/** Method getLower: <br />
+		 * @return lower end of the 95% confidence interval of the player's
+		 * chance of winning (Wilson score interval, which stays inside 0 to 1)
+		 */
+		public double getLower(int player) {
+			return Math.max(0, center(player) - halfWidth(player));
+		}
+
+		/** Method getUpper: <br />
+		 * @return upper end of the 95% confidence interval of the player's chance of winning
+		 */
+		public double getUpper(int player) {
+			return Math.min(1, center(player) + halfWidth(player));
+		}
+
+		private double center(int player) {
+			if (rollouts == 0) return 0.5;
+			double z2 = Z95 * Z95 / rollouts;
+			return (getWinRate(player) + z2 / 2) / (1 + z2);
+		}
+
+		private double halfWidth(int player) {
+			if (rollouts == 0) return 0.5;
+			double p = getWinRate(player);
+			double z2 = Z95 * Z95 / rollouts;
+			return Z95 * Math.sqrt(p * (1 - p) / rollouts + z2 / (4 * rollouts)) / (1 + z2);
+		}
+	}
+
+	/** Class Run: <br />
+	 * The results of one estimate, added to by its threads.
+	 */
+	private static class Run {
+		int rollouts;					//rollouts made, guarded by the Run
+		int[] wins;						//rollouts won by each player, guarded by the Run
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		Run(int players) {
+			wins = new int[players];
+		}
+	}
+
+	/** Class Roller: <br />
+	 * One thread of an estimate: rolls out its copy of the board until
+	 * it is stopped or the estimate has enough rollouts.
+	 */
+	private static class Roller implements Runnable {
+		private GameBoard board;
+		private Run run;
+		private Random rng;
+		private int[] moves;
+		private int[] wins;			//results not yet added to the run
+
+		Roller(GameBoard board, Run run, Random rng) {
+			this.board = board;
+			this.run = run;
+			this.rng = rng;
+			moves = new int[board.getMaxMoveCount()];
+			wins = new int[board.getPlayerCount()];
+		}
+
+		public void run() {
+			int rollouts = 0;
+			while (!Thread.currentThread().isInterrupted()) {
+				board.mark();
+				int winner = rollout();
+				board.unmake();
+				if (winner >= 0) wins[winner]++;
+				if (++rollouts == BATCH) {
+					if (!add(rollouts)) return;
+					rollouts = 0;
+				}
+			}
+		}
+
+		/** Method add: <br />
+		 * Adds the thread's results to the run.
+		 * @return false if the run has enough rollouts
+		 */
+		private boolean add(int rollouts) {
+			synchronized (run) {
+				run.rollouts += rollouts;
+				for (int p = 0; p < wins.length; p++) {
+					run.wins[p] += wins[p];
+					wins[p] = 0;
+				}
+				return run.rollouts < MAX_ROLLOUTS;
+			}
+		}
+
+		/** Method rollout: <br />
+		 * Plays random moves to the end of the game.
+		 * @return the winner, or -1 if the rollout was stopped first
+		 */
+		private int rollout() {
+			int firstTurn = board.getTurnCounter();
+			while (board.getStage() != board.GAME_OVER && board.getTurnCounter() - firstTurn < ROLLOUT_TURNS) {
+				int count = board.generateMoves(moves);
+				board.applyMove(moves[rng.nextInt(count)]);
+			}
+			return board.getWinner();
+		}
+	}
+}
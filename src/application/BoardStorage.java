@@ -0,0 +1,52 @@
+package application;
+
+/** Interface BoardStorage: <br />
+ * The grid of cells behind a GameBoard.  Each cell holds a stack of
+ * tokens, identified by their token ID (see PlayerToken.getTokenID),
+ * and is either enabled or disabled.  Every method throws an
+ * ArrayIndexOutOfBoundsException when given a cell that does not exist.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public interface BoardStorage {
+	
+	/** Method isEnabled: <br />
+	 * @return true if the cell is enabled, false if it is a closed pit
+	 */
+	public boolean isEnabled(int row, int col);
+	
+	/** Method setEnabled: <br />
+	 * Enables or disables the cell
+	 */
+	public void setEnabled(int row, int col, boolean enabled);
+	
+	/** Method isPit: <br />
+	 * @return true if the cell was generated as a pit (even if it has since been enabled)
+	 */
+	public boolean isPit(int row, int col);
+	
+	/** Method getHeight: <br />
+	 * @return number of tokens stacked in the cell
+	 */
+	public int getHeight(int row, int col);
+	
+	/** Method push: <br />
+	 * Stacks a token on top of the cell
+	 * @param tokenID - the token to stack
+	 */
+	public void push(int row, int col, int tokenID);
+	
+	/** Method pop: <br />
+	 * Removes the top token of the cell, even if the cell is not enabled
+	 * (the board checks that before moving a token out of a cell).
+	 * @return the token ID removed, or -1 if there was nothing to remove
+	 */
+	public int pop(int row, int col);
+	
+	/** Method peek: <br />
+	 * @param depth - 0 for the top token, 1 for the token beneath it, etc.
+	 * @return the token ID at that depth, or -1 if the stack is not that high
+	 */
+	public int peek(int row, int col, int depth);
+}
@@ -0,0 +1,177 @@
+package application;
+
+import java.util.Random;
+
+/** Interface BoardView: <br />
+ * A read-only view of a game in progress, given to computer players
+ * (see ai.Bot).  Nothing here changes the game: tokens are described
+ * by their token ID (see PlayerToken.getTokenID; player p owns IDs
+ * p * getTokenCount() to (p + 1) * getTokenCount() - 1), and a player
+ * that wants to try moves out makes a copy of the board to try them on.
+ * GameBoard is the only implementation.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public interface BoardView {
+	/** Placement stage */
+	public static final int PLACEMENT = 0;
+	/** Game play (movement) stage */
+	public static final int PLAY = 1;
+	/** Game over stage.  Nothing can be done */
+	public static final int GAME_OVER = 2;
+
+	/** Method getRows: <br />
+	 * @return number of rows on the board (also the number of sides of the die)
+	 */
+	public int getRows();
+
+	/** Method getCols: <br />
+	 * @return number of columns on the board
+	 */
+	public int getCols();
+
+	/** Method getPitMode: <br />
+	 * @return PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 */
+	public int getPitMode();
+
+	/** Method getPlayerCount: <br />
+	 * @return number of players
+	 */
+	public int getPlayerCount();
+
+	/** Method getTokenCount: <br />
+	 * @return number of tokens each player has
+	 */
+	public int getTokenCount();
+
+	/** Method getWinCount: <br />
+	 * @return number of tokens a player must get to the last column to win
+	 */
+	public int getWinCount();
+
+	/** Method getStage: <br />
+	 * @return PLACEMENT, PLAY, or GAME_OVER
+	 */
+	public int getStage();
+
+	/** Method getCurrentPlayer: <br />
+	 * @return the playerID of the player to move
+	 */
+	public int getCurrentPlayer();
+
+	/** Method getTurnCounter: <br />
+	 * @return the number of turns taken since the start of the game
+	 */
+	public int getTurnCounter();
+
+	/** Method getCurrentRound: <br />
+	 * @return the current round (number of moves made by the first player)
+	 */
+	public int getCurrentRound();
+
+	/** Method getForwardRow: <br />
+	 * @return the row rolled on the die for this turn
+	 */
+	public int getForwardRow();
+
+	/** Method sideWasMoved: <br />
+	 * @return true if the side move of this turn has been made (or skipped)
+	 */
+	public boolean sideWasMoved();
+
+	/** Method getWinner: <br />
+	 * @return playerID of the winner, or -1 if the game is not over
+	 */
+	public int getWinner();
+
+	/** Method getMaxMoveCount: <br />
+	 * @return the size of an array large enough for generateMoves
+	 */
+	public int getMaxMoveCount();
+
+	/** Method generateMoves: <br />
+	 * Writes every legal move (see Move) into the given array.
+	 * @param moves - array of at least getMaxMoveCount() elements
+	 * @return number of moves written, 0 if the game is over
+	 */
+	public int generateMoves(int[] moves);
+
+	/** Method isLegalMove: <br />
+	 * @param move - an encoded move (see Move)
+	 * @return true if generateMoves would produce the move right now
+	 */
+	public boolean isLegalMove(int move);
+
+	/** Method getHash: <br />
+	 * @return 64-bit hash of the position (see GameBoard.getHash)
+	 */
+	public long getHash();
+
+	/** Method isCellEnabled: <br />
+	 * @return true if tokens in the cell may move, false for a closed pit
+	 */
+	public boolean isCellEnabled(int row, int col);
+
+	/** Method getStackCount: <br />
+	 * @return number of tokens stacked in the cell
+	 */
+	public int getStackCount(int row, int col);
+
+	/** Method getTokenAt: <br />
+	 * @param depth - 0 for the top token, 1 for the token beneath it, etc.
+	 * @return the token ID at that depth of the cell's stack, or -1 if the stack is not that high
+	 */
+	public int getTokenAt(int row, int col, int depth);
+
+	/** Method getTokenRow: <br />
+	 * @return row of the token, -1 if it has not been placed
+	 */
+	public int getTokenRow(int tokenID);
+
+	/** Method getTokenCol: <br />
+	 * @return column of the token, -1 if it has not been placed
+	 */
+	public int getTokenCol(int tokenID);
+
+	/** Method isTokenEnabled: <br />
+	 * @return true if the token may move
+	 */
+	public boolean isTokenEnabled(int tokenID);
+
+	/** Method isTokenFinished: <br />
+	 * @return true if the token has reached the last column
+	 */
+	public boolean isTokenFinished(int tokenID);
+
+	/** Method isTokenWinnable: <br />
+	 * @return false if the token can never reach the last column (a black hole holds it)
+	 */
+	public boolean isTokenWinnable(int tokenID);
+
+	/** Method getTurnsToFinish: <br />
+	 * @return the expected number of turns the token needs to reach the
+	 * last column (see FinishTable): 0 if it is there, the lost cost if it never can
+	 */
+	public double getTurnsToFinish(int tokenID);
+
+	/** Method getFinishedCount: <br />
+	 * @return number of the player's tokens in the last column
+	 */
+	public int getFinishedCount(int playerID);
+
+	/** Method getWinnableCount: <br />
+	 * @return number of the player's tokens that can still reach the last column
+	 */
+	public int getWinnableCount(int playerID);
+
+	/** Method copy: <br />
+	 * Makes an independent board in the same position (see the GameBoard
+	 * copy constructor), to try moves on.
+	 * @param listener - receives the copy's events
+	 * @param random - source of the copy's die rolls
+	 * @return the copy
+	 */
+	public GameBoard copy(GameListener listener, Random random);
+}
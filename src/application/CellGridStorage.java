@@ -0,0 +1,68 @@
+package application;
+
+/** Class CellGridStorage: <br />
+ * Board storage made of one GameBoardCell stack per grid location.
+ * This is the storage used by the game window, since the cells can be
+ * handed out directly through GameBoard.getCell.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class CellGridStorage implements BoardStorage {
+	private GameBoardCell[][] grid;		//the grid itself
+	private boolean[][] pitGrid;		//where the pits were generated
+	private PlayerTracker tracker;		//to turn token IDs back into tokens
+	
+	/** Constructor: <br />
+	 * @param pitGrid - true for every cell that is a pit
+	 * @param pitMode - PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 * @param tracker - owner of the tokens that will be stacked
+	 */
+	public CellGridStorage(boolean[][] pitGrid, int pitMode, PlayerTracker tracker) {
+		this.pitGrid = pitGrid;
+		this.tracker = tracker;
+		grid = new GameBoardCell[pitGrid.length][pitGrid[0].length];
+		for (int i = 0; i < grid.length; i++) {
+			for (int j = 0; j < grid[i].length; j++) {
+				grid[i][j] = new GameBoardCell(!pitGrid[i][j], pitMode, tracker.getTotalTokenCount());
+			}
+		}
+	}
+	
+	/** Method getCell: <br />
+	 * @return the cell stack at the given location
+	 */
+	public GameBoardCell getCell(int row, int col) {
+		return grid[row][col];
+	}
+	
+	public boolean isEnabled(int row, int col) {
+		return grid[row][col].isEnabled();
+	}
+	
+	public void setEnabled(int row, int col, boolean enabled) {
+		grid[row][col].setEnabled(enabled);
+	}
+	
+	public boolean isPit(int row, int col) {
+		return pitGrid[row][col];
+	}
+	
+	public int getHeight(int row, int col) {
+		return grid[row][col].getNumberOfItems();
+	}
+	
+	public void push(int row, int col, int tokenID) {
+		grid[row][col].push(tracker.getToken(tokenID));
+	}
+	
+	public int pop(int row, int col) {
+		PlayerToken pt = grid[row][col].removeTop();
+		return pt == null ? -1 : pt.getTokenID();
+	}
+	
+	public int peek(int row, int col, int depth) {
+		PlayerToken pt = grid[row][col].peekAt(depth);
+		return pt == null ? -1 : pt.getTokenID();
+	}
+}
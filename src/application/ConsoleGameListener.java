@@ -0,0 +1,73 @@
+package application;
+
+import java.io.PrintStream;
+
+/** Class ConsoleGameListener: <br />
+ * A GameListener that writes every event to a text stream
+ * (the java terminal by default).
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class ConsoleGameListener implements GameListener {
+	private PrintStream out;
+	
+	/** Default Constructor: <br />
+	 * Writes events to System.out
+	 */
+	public ConsoleGameListener() {
+		this(System.out);
+	}
+	
+	/** Constructor: <br />
+	 * @param out - the stream to write events to
+	 */
+	public ConsoleGameListener(PrintStream out) {
+		this.out = out;
+	}
+	
+	/** Method tokensAssigned: <br />
+	 * Lists the tokens belonging to the player.
+	 */
+	public void tokensAssigned(int playerID, int tokenCount) {
+		out.print("Tokens belonging to player " + playerID + ": ");
+		for (int j = 0; j < tokenCount; j++) {
+			out.print(j + " ");
+		}
+		out.println("");
+	}
+	
+	/** Method turnUpdated: <br />
+	 * Prints the new turn, player, round and die roll.
+	 */
+	public void turnUpdated(int turnCounter, int currentPlayer, int currentRound, int forwardRow) {
+		out.println("Turn has been updated:");
+		out.println("turnCounter: " + turnCounter +
+				"\ncurrentPlayer: " + currentPlayer + 
+				"\ncurrentRound: " + currentRound + 
+				"\nDieRoll: " + forwardRow);
+	}
+	
+	/** Method stageChanged: <br />
+	 * Prints the name of the new stage.
+	 */
+	public void stageChanged(int stage) {
+		if (stage == 0) out.println("Stage: HedgeHog Placement");
+		else if (stage == 1) out.println("Stage: HedgeHog Movement");
+		else out.println("Stage: Game Over");
+	}
+	
+	/** Method moveFailed: <br />
+	 * Prints the error message.
+	 */
+	public void moveFailed(String message) {
+		out.println(message);
+	}
+	
+	/** Method playerCannotWin: <br />
+	 * Prints a notice that the player has lost.
+	 */
+	public void playerCannotWin(int playerID, String colorName) {
+		out.println(colorName + " cannot win the game.");
+	}
+}
@@ -142,6 +142,16 @@ public class ConsoleIn {
 		return scan.next().charAt(0);
 	}
 	
+	/** Method readWord: <br />
+	 * Scans for the next word (text up to a space or line break) from the console
+	 * @param prompt
+	 * @return String
+	 */
+	public String readWord(String prompt) {
+		System.out.print(prompt + " > ");
+		return scan.next();
+	}
+	
 	/** Method readString: <br />
 	 * Scans for a String input from the console
 	 * @param prompt
@@ -0,0 +1,277 @@
+package application;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Class FinishTable: <br />
+ * The expected number of turns (die rolls, counting every player's
+ * turn) a token needs to reach the last column from each cell of a
+ * board, taking the pits of the layout and the pit mode into account.
+ * Evaluation functions read a token's entry instead of working out
+ * its path.  A table depends only on the layout, the pit mode and the
+ * number of players, so boards that share these share one table (see
+ * forLayout), and a board looks its table up the first time it is asked
+ * for an entry.
+ * <br />
+ * The numbers are for a token alone on the board.  Each turn the die
+ * picks a row, and the token moves forward if it is in that row.  On
+ * its owner's turn (one turn in playerCount) the token may first make
+ * the side move: a step up or down, which it takes when that gets it to
+ * the finish sooner.  Landing in a pit:
+ * <ul>
+ * <li>PITS: the token waits until the tokens behind catch up, taken to
+ * be PIT_WAIT_SHARE of the turns a token needs to get from the first
+ * column to the pit's column, then goes on from the pit's cell.</li>
+ * <li>BLACK_HOLES: the token is lost, which is counted as LOST_FACTOR
+ * times the turns a token needs from the first column.</li>
+ * <li>WORM_HOLES: the token goes on from any open cell outside the last
+ * column, all equally likely.</li>
+ * <li>ORIGINS: the token goes on from the first column of its row.</li>
+ * </ul>
+ * The table is worked out by value iteration: every cell is updated from
+ * its neighbours until no entry changes by more than TOLERANCE.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class FinishTable {
+	/** Share of the turns from the first column to a pit that a token in the pit waits (PITS) */
+	public static final double PIT_WAIT_SHARE = 0.5;
+	/** Cost of a lost token (BLACK_HOLES), in multiples of the turns needed from the first column */
+	public static final double LOST_FACTOR = 2;
+	/** Largest change of an entry at which the iteration stops */
+	public static final double TOLERANCE = 1e-9;
+	/** Most tables kept for reuse */
+	public static final int CACHE_SIZE = 256;
+
+	private static final int MAX_ITERATIONS = 100000;
+
+	private static final Map<String, FinishTable> cache = new LinkedHashMap<String, FinishTable>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		protected boolean removeEldestEntry(Map.Entry<String, FinishTable> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private int rows, cols;
+	private double[][] turns;			//expected turns from each open cell (0 in the last column)
+	private double[][] pitTurns;		//expected turns for a token that has landed in each pit
+	private double startTurns;			//expected turns from the first column, averaged over the rows
+	private double lostTurns;			//cost of a lost token
+	private double[] pitWait;			//turns a token waits in a pit in each column (PITS)
+
+	/** Method forLayout: <br />
+	 * Finds the table of a layout, working it out the first time it is asked for.
+	 * Safe to call from several threads.
+	 * @param pitGrid - pitGrid[row][col] is true for a pit
+	 * @param pitMode - PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 * @param playerCount - number of players
+	 * @return the table
+	 */
+	public static FinishTable forLayout(boolean[][] pitGrid, int pitMode, int playerCount) {
+		StringBuilder key = new StringBuilder();
+		key.append(pitMode).append('/').append(playerCount).append('/').append(pitGrid[0].length);
+		for (int i = 0; i < pitGrid.length; i++) {
+			key.append('/');
+			for (int j = 0; j < pitGrid[i].length; j++) {
+				if (pitGrid[i][j]) key.append(j).append(',');
+			}
+		}
+		String name = key.toString();
+		FinishTable table;
+		synchronized (cache) {
+			table = cache.get(name);
+		}
+		if (table != null) return table;
+		//worked out outside the lock, so other layouts don't wait for it
+		FinishTable made = new FinishTable(pitGrid, pitMode, playerCount);
+		synchronized (cache) {
+			table = cache.get(name);
+			if (table == null) {
+				table = made;
+				cache.put(name, table);
+			}
+			return table;
+		}
+	}
+
+	/** Constructor: <br />
+	 * Works out the table of a layout (see forLayout, which keeps them)
+	 * @param pitGrid - pitGrid[row][col] is true for a pit
+	 * @param pitMode - PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 * @param playerCount - number of players
+	 */
+	public FinishTable(boolean[][] pitGrid, int pitMode, int playerCount) {
+		rows = pitGrid.length;
+		cols = pitGrid[0].length;
+
+		//the same board without pits gives the waits and the cost of a lost token
+		pitWait = new double[cols];
+		double[][] open = solve(new boolean[rows][cols], pitMode, playerCount);
+		lostTurns = LOST_FACTOR * columnMean(open, 0);
+		for (int j = 0; j < cols; j++) {
+			pitWait[j] = PIT_WAIT_SHARE * (columnMean(open, 0) - columnMean(open, j));
+		}
+
+		turns = solve(pitGrid, pitMode, playerCount);
+		pitTurns = new double[rows][cols];
+		double worm = wormMean(turns, pitGrid);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				pitTurns[i][j] = landing(turns, pitGrid, pitMode, i, j, worm);
+			}
+		}
+		startTurns = columnMean(turns, 0);
+	}
+
+	/** Method solve: <br />
+	 * Value iteration over the cells of a layout.
+	 * @return expected turns from each cell, as if the cell were open
+	 */
+	private double[][] solve(boolean[][] pitGrid, int pitMode, int playerCount) {
+		double[][] value = new double[rows][cols];
+		double[] side = new double[rows];		//best side move for each roll, on the owner's turn
+		double own = 1.0 / playerCount;			//chance that the turn is the owner's
+		double roll = 1.0 / rows;
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double change = 0;
+			double worm = wormMean(value, pitGrid);
+			//right to left, so most cells are updated from cells already updated
+			for (int j = cols - 2; j >= 0; j--) {
+				for (int i = 0; i < rows; i++) {
+					for (int r = 0; r < rows; r++) {
+						side[r] = Double.MAX_VALUE;
+						for (int step = -1; step <= 1; step += 2) {
+							int s = i + step;
+							if (s < 0 || s >= rows) continue;
+							double after;
+							if (pitGrid[s][j]) after = landing(value, pitGrid, pitMode, s, j, worm);
+							else if (r == s) after = landing(value, pitGrid, pitMode, s, j + 1, worm);
+							else after = value[s][j];
+							side[r] = Math.min(side[r], after);
+						}
+					}
+					double updated = stayOrStep(value[i][j], landing(value, pitGrid, pitMode, i, j + 1, worm),
+							side, i, own, roll);
+					change = Math.max(change, Math.abs(updated - value[i][j]));
+					value[i][j] = updated;
+				}
+			}
+			if (change < TOLERANCE) break;
+		}
+		return value;
+	}
+
+	/** Method stayOrStep: <br />
+	 * Solves the expected turns v of a cell, given its neighbours: each turn
+	 * costs one, and when a row other than the token's is rolled the token stays
+	 * (v), unless it is its owner's turn and a side move is better.  Which side
+	 * moves are better depends on v, so the choice is guessed from the old value
+	 * and the equation solved again until the choice holds (it is linear for a
+	 * fixed choice); this takes a step or two.
+	 * @param guess - the old value of the cell
+	 * @param forward - expected turns after moving forward (its row rolled)
+	 * @param side - expected turns after the best side move for each roll
+	 * @param row - the token's row
+	 * @return the expected turns
+	 */
+	private double stayOrStep(double guess, double forward, double[] side, int row, double own, double roll) {
+		double v = guess;
+		for (int round = 0; round <= rows; round++) {
+			double constant = 1 + roll * ((1 - own) * forward + own * Math.min(forward, side[row]));
+			double stays = 0;			//share of the turns on which the token stays put
+			for (int r = 0; r < rows; r++) {
+				if (r == row) continue;
+				stays += roll * (1 - own);
+				if (side[r] < v) constant += roll * own * side[r];
+				else stays += roll * own;
+			}
+			double solved = constant / (1 - stays);
+			if (solved == v) break;
+			boolean same = true;
+			for (int r = 0; r < rows; r++) {
+				if (r != row && (side[r] < v) != (side[r] < solved)) same = false;
+			}
+			v = solved;
+			if (same) break;
+		}
+		return v;
+	}
+
+	/** Method landing: <br />
+	 * @return expected turns for a token that moves into the cell
+	 */
+	private double landing(double[][] value, boolean[][] pitGrid, int pitMode, int row, int col, double worm) {
+		if (col == cols - 1) return 0;
+		if (!pitGrid[row][col]) return value[row][col];
+		switch (pitMode) {
+		case 0:		//PITS
+			return pitWait[col] + value[row][col];
+		case 1:		//BLACK_HOLES
+			return lostTurns;
+		case 2:		//WORM_HOLES
+			return worm;
+		default:	//ORIGINS
+			return value[row][0];
+		}
+	}
+
+	/** Method wormMean: <br />
+	 * @return the mean of the open cells outside the last column (where a worm hole sends a token)
+	 */
+	private double wormMean(double[][] value, boolean[][] pitGrid) {
+		double sum = 0;
+		int count = 0;
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols - 1; j++) {
+				if (pitGrid[i][j]) continue;
+				sum += value[i][j];
+				count++;
+			}
+		}
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/** Method columnMean: <br />
+	 * @return the mean of a column of a table
+	 */
+	private double columnMean(double[][] value, int col) {
+		double sum = 0;
+		for (int i = 0; i < rows; i++) {
+			sum += value[i][col];
+		}
+		return sum / rows;
+	}
+
+	/** Method getTurns: <br />
+	 * @return expected turns to finish for a token in the cell, if the cell is open
+	 * (0 in the last column)
+	 */
+	public double getTurns(int row, int col) {
+		return turns[row][col];
+	}
+
+	/** Method getPitTurns: <br />
+	 * @return expected turns to finish for a token that has landed in the
+	 * pit in the cell (the lost cost for a black hole), or getTurns if
+	 * the layout has no pit there
+	 */
+	public double getPitTurns(int row, int col) {
+		return pitTurns[row][col];
+	}
+
+	/** Method getStartTurns: <br />
+	 * @return expected turns to finish from the first column, averaged over the rows
+	 * (for tokens not placed yet)
+	 */
+	public double getStartTurns() {
+		return startTurns;
+	}
+
+	/** Method getLostTurns: <br />
+	 * @return what a token that can no longer finish counts as
+	 */
+	public double getLostTurns() {
+		return lostTurns;
+	}
+}
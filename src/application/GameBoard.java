@@ -1,10 +1,6 @@
 package application;
 
-import linkedlists.DataStructureException;
 import java.util.Random;
-import java.util.ArrayList;
-
-import javax.swing.JOptionPane;
 
 /** Class GameBoard: <br />
  * Creates a game grid of cells that can hold stacks of player tokens.
@@ -13,13 +9,18 @@ import javax.swing.JOptionPane;
  * @author Joshua Kovach
  * @version 1.0
  */
-public class GameBoard {
+public class GameBoard implements BoardView {
+	/** Stores the grid as GameBoardCell stacks (required by getCell users such as the game window) */
+	public static final int CELL_STORAGE = 0;
+	/** Stores the grid as packed ints (see PackedBoardStorage), for simulations */
+	public static final int PACKED_STORAGE = 1;
+	
 	/** Placement stage */
-	public final int PLACEMENT = 0;
+	public final int PLACEMENT = BoardView.PLACEMENT;
 	/** Game play (movement) stage */
-	public final int PLAY = 1;
+	public final int PLAY = BoardView.PLAY;
 	/** Game over stage.  Nothing can be done */
-	public final int GAME_OVER = 2;
+	public final int GAME_OVER = BoardView.GAME_OVER;
 	
 	/** A final cell */
 	public final int FINISHED = -2;
@@ -36,8 +37,9 @@ public class GameBoard {
 	
 	private int rows;					// vertical size of the grid
 	private int cols;					//horizontal size of the grid
-	private GameBoardCell [][] grid;	//the grid itself
+	private BoardStorage grid;			//the grid itself
 	private boolean[][] pitGrid;		//the arrangements of pits on the grid
+	private FinishTable finishTable;	//expected turns to finish from each cell, for this layout (null until needed)
 	private PlayerTracker tracker;		//the players and their tokens
 	private int pitMode;				//what type of pits
 	
@@ -52,161 +54,378 @@ public class GameBoard {
 	private boolean sideMoved;			//indicates whether a side move has been made
 	private boolean forwardMoved;		//indicates whether a forward move has been made
 	
+	private GameListener listener;		//receives messages instead of the console
+	private RowTokenIndex rowIndex;		//enabled tokens in each row
+	
+	private int[] colTokenCount;		//tokens stacked in each column
+	private int rearCol;				//rearmost column holding a token (cols if the board is empty)
+	private int[] col0HeightCount;		//number of first column cells of each stack height
+	private int col0MinHeight;			//smallest stack height in the first column
+	
+	private int[] destCells;			//open cells outside the last column (row * cols + col), for worm holes
+	private int[] destSlot;				//position of each cell in destCells, -1 if not there
+	private int destCount;				//number of cells in destCells
+	
+	private ZobristKeys keys;			//keys for hashing the board
+	private long hash;					//Zobrist hash of the whole board, kept up to date
+	
+	/* Undo log: every change to the board made while an undo mark is set
+	 * is recorded as UNDO_RECORD ints (operation, then up to four arguments),
+	 * so that unmake() can reverse the changes back to the last mark.
+	 */
+	private static final int UNDO_RECORD = 5;
+	private static final int UNDO_PUSH = 0;				//row, col, tokenID
+	private static final int UNDO_POP = 1;				//row, col, tokenID
+	private static final int UNDO_TOKEN_ENABLED = 2;	//tokenID, old enabled
+	private static final int UNDO_TOKEN_FINISHED = 3;	//tokenID, old enabled
+	private static final int UNDO_TOKEN_UNWINNABLE = 4;	//tokenID
+	private static final int UNDO_TOKEN_LOCATION = 5;	//tokenID, old row, old col
+	private static final int UNDO_CELL_ENABLED = 6;		//row, col, old enabled
+	private static final int UNDO_TURN = 7;				//old turnCounter, currentPlayer, currentRound, forwardRow
+	private static final int UNDO_FLAGS = 8;			//old sideMoved, old forwardMoved
+	private static final int UNDO_STAGE = 9;			//old stage
+	private static final int UNDO_FORWARD_ROW = 10;		//old forwardRow
+	private int[] undoLog = new int[0];
+	private int undoSize;				//ints used in the undo log
+	private int[] undoMarks = new int[0];
+	private int markCount;				//number of marks (nested makeMove calls)
+	private boolean undoing;			//true while unmake() is reversing changes
+	
+	private StringBuilder renderBuffer;	//reused by printGame
+	
 	/** Default Constructor: <br />
 	 * Instantiates a new game board and creates a cell object
-	 * in each grid location.
+	 * in each grid location.  Game events are written to the console.
 	 */
 	public GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode) {
+		this(rows, cols, playerCount, tokenCount, winCount, pitMode, new ConsoleGameListener());
+	}
+	
+	/** Constructor: <br />
+	 * Instantiates a new game board that reports game events to the
+	 * given listener.  Pass a NullGameListener to run a game headless.
+	 * @param listener - receives turn, stage, and error events
+	 */
+	public GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode, 
+			GameListener listener) {
+		this(rows, cols, playerCount, tokenCount, winCount, pitMode, listener, CELL_STORAGE);
+	}
+	
+	/** Constructor: <br />
+	 * Instantiates a new game board with the given grid storage.
+	 * @param listener - receives turn, stage, and error events
+	 * @param storage - CELL_STORAGE or PACKED_STORAGE
+	 */
+	public GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode, 
+			GameListener listener, int storage) {
+		this(rows, cols, playerCount, tokenCount, winCount, pitMode, listener, storage, new GameRandom());
+	}
+	
+	/** Constructor: <br />
+	 * Instantiates a new game board whose pit layout, die rolls, and
+	 * worm hole destinations all come from the given generator, so
+	 * a game can be replayed exactly by passing a generator with the same seed.
+	 * The board keeps using the generator; don't share it between boards.
+	 * @param listener - receives turn, stage, and error events
+	 * @param storage - CELL_STORAGE or PACKED_STORAGE
+	 * @param random - source of the pit layout and die rolls (see GameRandom)
+	 */
+	public GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode, 
+			GameListener listener, int storage, Random random) {
+		this(rows, cols, playerCount, tokenCount, winCount, pitMode, listener, storage, random, 
+				PitGridGenerator.newHedgeHogGrid(rows, random), null);
+	}
+	
+	/** Constructor: <br />
+	 * Instantiates a new game board with a chosen pit layout
+	 * (see PitLayoutCatalog), so that games on the same layout can be
+	 * compared.  Die rolls and worm hole destinations come from the generator.
+	 * @param listener - receives turn, stage, and error events
+	 * @param storage - CELL_STORAGE or PACKED_STORAGE
+	 * @param random - source of the die rolls (see GameRandom)
+	 * @param layoutIndex - from 0 to PitLayoutCatalog.getLayoutCount(rows) - 1
+	 */
+	public GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode, 
+			GameListener listener, int storage, Random random, long layoutIndex) {
+		this(rows, cols, playerCount, tokenCount, winCount, pitMode, listener, storage, random, 
+				PitLayoutCatalog.newHedgeHogGrid(rows, layoutIndex), null);
+	}
+	
+	private GameBoard(int rows, int cols, int playerCount, int tokenCount, int winCount, int pitMode, 
+			GameListener listener, int storage, Random random, boolean[][] pitGrid, ZobristKeys keys) {
+		this.listener = listener;
 		this.rows = rows;
 		this.cols = cols;
 		this.pitMode = pitMode;
-		grid = new GameBoardCell[rows][cols];
-		pitGrid = PitGridGenerator.newHedgeHogGrid(rows);
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < cols; j++) {
-				if (pitGrid[i][j]) {
-					grid[i][j] = new GameBoardCell(false, pitMode);
-				}
-				else grid[i][j] = new GameBoardCell(true, pitMode);
-			}
-		}
+		this.pitGrid = pitGrid;
 		
 		tracker = new PlayerTracker(playerCount, tokenCount, winCount);
 		
+		if (storage == PACKED_STORAGE) {
+			grid = new PackedBoardStorage(pitGrid, tracker.getTotalTokenCount());
+		}
+		else grid = new CellGridStorage(pitGrid, pitMode, tracker);
+		rowIndex = new RowTokenIndex(rows, tracker.getTotalTokenCount());
+		
+		colTokenCount = new int[cols];
+		col0HeightCount = new int[tracker.getTotalTokenCount() + 1];
+		destCells = new int[rows * cols];
+		destSlot = new int[rows * cols];
+		
 		for (int i = 0; i < playerCount; i++) {
-			System.out.print("Tokens belonging to player " + i + ": ");
-			for (int j = 0; j < tokenCount; j++) {
-				System.out.print(j + " ");
-			}
-			System.out.println("");
+			listener.tokensAssigned(i, tokenCount);
 		}
 		
-		dieRoll = new Random();
+		dieRoll = random;
 		
 		turnCounter = 0;
 		currentPlayer = 0;
 		currentRound = 0;
 		stage = GAME_OVER;
+		
+		this.keys = (keys != null) ? keys : ZobristKeys.forBoard(rows, cols, playerCount, tracker.getTotalTokenCount());
+		rebuildIndices();
+	}
+	
+	/** Copy Constructor: <br />
+	 * Instantiates a copy of a game in progress: the same layout, tokens,
+	 * stacks, turn, die roll, and stage, with its own listener and die.
+	 * Changes to either board do not affect the other, so the copy can
+	 * be searched or played out on another thread.  The undo log is not copied.
+	 * @param board - the game to copy
+	 * @param listener - receives the copy's events
+	 * @param random - source of the copy's die rolls
+	 */
+	public GameBoard(GameBoard board, GameListener listener, Random random) {
+		this(board.rows, board.cols, board.tracker.getPlayerCount(), board.tracker.getTokenCount(), 
+				board.tracker.getWinCount(), board.pitMode, listener, 
+				(board.grid instanceof PackedBoardStorage) ? PACKED_STORAGE : CELL_STORAGE, random, board.pitGrid, board.keys);
+		
+		for (int id = 0; id < tracker.getTotalTokenCount(); id++) {
+			PlayerToken from = board.tracker.getToken(id);
+			PlayerToken pt = tracker.getToken(id);
+			pt.setLocation(from.getLocationRow(), from.getLocationCol());
+			if (from.isFinished()) pt.setFinished();
+			if (!from.isWinnable()) pt.setUnwinnable();
+			if (from.isEnabled()) pt.setEnabled();
+			else pt.setDisabled();
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				grid.setEnabled(i, j, board.grid.isEnabled(i, j));
+				for (int depth = board.grid.getHeight(i, j) - 1; depth >= 0; depth--) {
+					grid.push(i, j, board.grid.peek(i, j, depth));
+				}
+			}
+		}
+		
+		finishTable = board.finishTable;
+		forwardRow = board.forwardRow;
+		turnCounter = board.turnCounter;
+		currentPlayer = board.currentPlayer;
+		currentRound = board.currentRound;
+		stage = board.stage;
+		sideMoved = board.sideMoved;
+		forwardMoved = board.forwardMoved;
+		rebuildIndices();
+	}
+	
+	/** Method copy: <br />
+	 * Copies the game in progress (see the copy constructor)
+	 * @param listener - receives the copy's events
+	 * @param random - source of the copy's die rolls
+	 * @return the copy
+	 */
+	public GameBoard copy(GameListener listener, Random random) {
+		return new GameBoard(this, listener, random);
+	}
+	
+	/** Method rebuildIndices: <br />
+	 * Works out the row index, column counts, worm hole destinations,
+	 * and hash from the grid, tokens, and turn.
+	 */
+	private void rebuildIndices() {
+		rearCol = cols;
+		for (int i = 0; i < col0HeightCount.length; i++) {
+			col0HeightCount[i] = 0;
+		}
+		destCount = 0;
+		hash = keys.player(currentPlayer) ^ keys.forwardRow(forwardRow) ^ keys.stage(stage)
+				^ keys.moved(sideMoved, forwardMoved);
+		for (int j = 0; j < cols; j++) {
+			colTokenCount[j] = 0;
+			for (int i = 0; i < rows; i++) {
+				int height = grid.getHeight(i, j);
+				colTokenCount[j] += height;
+				for (int depth = 0; depth < height; depth++) {
+					hash ^= keys.stacked(grid.peek(i, j, depth), i * cols + j, height - 1 - depth);
+				}
+				if (j == 0) col0HeightCount[height]++;
+				if (!grid.isEnabled(i, j)) hash ^= keys.closed(i * cols + j);
+			}
+			if (colTokenCount[j] > 0 && rearCol == cols) rearCol = j;
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				destSlot[i * cols + j] = -1;
+				if (j < cols - 1 && grid.isEnabled(i, j)) {
+					destSlot[i * cols + j] = destCount;
+					destCells[destCount++] = i * cols + j;
+				}
+			}
+		}
+		col0MinHeight = 0;
+		while (col0HeightCount[col0MinHeight] == 0) col0MinHeight++;
+		
+		for (int id = 0; id < tracker.getTotalTokenCount(); id++) {
+			PlayerToken pt = tracker.getToken(id);
+			rowIndex.update(id, pt.getLocationRow(), pt.isEnabled());
+			if (pt.isEnabled()) hash ^= keys.enabled(id);
+			if (pt.isFinished()) hash ^= keys.finished(id);
+			if (!pt.isWinnable()) hash ^= keys.unwinnable(id);
+		}
 	}
 	
 	/** Method stackToken: <br />
 	 * Allows stacking of player tokens into a cell on the grid based on specific rules.
+	 * Tells the listener if the cell does not exist (see tryStack).
 	 * @param row - row of cell to set
 	 * @param col - column of cell to set
 	 * @param pt - player token to stack in the given cell
-	 * @param stage - 0 for token placement stage, 1 for game play stage
 	 * @return true if stacked, false if not placed
 	 */
 	public boolean stackToken (int row, int col, PlayerToken pt) {
+		StackResult result = tryStack(row, col, pt);
+		if (result == StackResult.OUT_OF_BOUNDS) {
+			listener.moveFailed("Error: cell (" + row + ", " + col + ") does not exist");
+		}
+		return result == StackResult.STACKED;
+	}
+	
+	/** Method tryStack: <br />
+	 * Stacks a player token into a cell on the grid based on specific rules,
+	 * checking the cell first instead of reporting errors.
+	 * @param row - row of cell to set
+	 * @param col - column of cell to set
+	 * @param pt - player token to stack in the given cell
+	 * @return STACKED if the token was stacked (or sent on by a pit), 
+	 * OUT_OF_BOUNDS if the cell does not exist, or TOO_HIGH if the 
+	 * placement stage does not allow the token on that stack yet
+	 */
+	public StackResult tryStack(int row, int col, PlayerToken pt) {
+		if (!isInBounds(row, col)) return StackResult.OUT_OF_BOUNDS;
+		
 		//Restrictions on placing tokens during the stacking stage.
 		if (stage == PLACEMENT) {
-			for (int i = 0; i < rows; i++) {
-				try {
-					if (grid[i][col].getNumberOfItems() < grid[row][col].getNumberOfItems()) return false;
-				}
-				catch (ArrayIndexOutOfBoundsException aie) { // if the location to stack is bad
-					System.out.println("Error: cell (" + row + ", " + col + ") does not exist");
-					return false;
+			if (col == 0) {
+				if (grid.getHeight(row, col) > col0MinHeight) return StackResult.TOO_HIGH;
+			}
+			else {
+				for (int i = 0; i < rows; i++) {
+					if (grid.getHeight(i, col) < grid.getHeight(row, col)) return StackResult.TOO_HIGH;
 				}
 			}
 		}
 		
-		try {
-			if (pitMode == PITS) {
-				if (prevColsAreEmpty(col)) {
-					/* PITS is the only mode where tokens in a disabled 
-					 * cell will remain in the cell and can come out later.
-					 * BLACK_HOLE will remain in the cell but never come out.
-					 * WORM_HOLE and ORIGINS never stay in the cell.
-					 * Therefore, PITS will be the only mode to enable a disabled cell.
-					 */
-					for (int i = 0; i < rows; i++) {
-						grid[i][col].setEnabled(true);
-						try {
-							grid[i][col].peek().setEnabled();
-						}
-						catch (DataStructureException dse) {
-							//do nothing, nothing to do.
-						}
+		if (pitMode == PITS) {
+			if (prevColsAreEmpty(col)) {
+				/* PITS is the only mode where tokens in a disabled 
+				 * cell will remain in the cell and can come out later.
+				 * BLACK_HOLE will remain in the cell but never come out.
+				 * WORM_HOLE and ORIGINS never stay in the cell.
+				 * Therefore, PITS will be the only mode to enable a disabled cell.
+				 */
+				for (int i = 0; i < rows; i++) {
+					setCellEnabled(i, col, true);
+					if (grid.getHeight(i, col) > 0) {
+						enableToken(topToken(i, col));
 					}
 				}
 			}
-			
-			//Disable the top token of the location of the stack if it exists
-			try {
-				if ( !grid[row][col].isEmpty() ) {
-					grid[row][col].peek().setDisabled();
-				}
-			}
-			catch (DataStructureException dse) {
-				System.out.println("No token in cell (" + row + ", " + col + ") to disable.");
-			}
-			catch (ArrayIndexOutOfBoundsException aie) { // if the location to stack is bad
-				System.out.println("Error: cell (" + row + ", " + col + ") does not exist");
-				return false;
+		}
+		
+		//Disable the top token of the location of the stack if it exists
+		if ( grid.getHeight(row, col) > 0 ) {
+			disableToken(topToken(row, col));
+		}
+		
+		//Stack the new token and change it's location
+		if (pitMode == PITS || pitMode == BLACK_HOLES) {
+			pushToken(row, col, pt);
+			if ( ! grid.isEnabled(row, col) )	{
+				disableToken(pt);
+				if (pitMode == BLACK_HOLES) makeUnwinnable(pt);
 			}
 			
-			//Stack the new token and change it's location
-			if (pitMode == PITS || pitMode == BLACK_HOLES) {
-				grid[row][col].push(pt);
-				if ( ! grid[row][col].isEnabled() )	{
-					pt.setDisabled();
-					if (pitMode == BLACK_HOLES) pt.setUnwinnable();
-				}
-				
-				else pt.setEnabled();
-				pt.setLocation(row, col);
-			}
-			else if (pitMode == WORM_HOLES) {
-				//generate a random new location for the little guy
-				if ( !grid[row][col].isEnabled() ) {
-					int newRow, newCol;
-					do {
-						newRow = dieRoll.nextInt(rows);
-						newCol = dieRoll.nextInt(cols - 1);	//don't want an auto-win
-					} while ( !grid[newRow][newCol].isEnabled() );	//don't want to move to another pit
-					stackToken(newRow, newCol, pt);
-					pt.setEnabled();
-					pt.setLocation(newRow, newCol);
-				}
-				else {
-					grid[row][col].push(pt);
-					pt.setEnabled();
-					pt.setLocation(row, col);
-				}
-			}
-			else if (pitMode == ORIGINS) {
-				//send the little guy back to the beginning
-				if ( !grid[row][col].isEnabled() ) {
-					grid[row][0].push(pt);
-					pt.setLocation(row, 0);
-				}
-				else {
-					grid[row][col].push(pt);
-					pt.setEnabled();
-					pt.setLocation(row, col);
+			else enableToken(pt);
+			setTokenLocation(pt, row, col);
+		}
+		else if (pitMode == WORM_HOLES) {
+			//generate a random new location for the little guy
+			if ( !grid.isEnabled(row, col) ) {
+				//any open cell but the last column (don't want an auto-win or another pit)
+				int cell = destCells[dieRoll.nextInt(destCount)];
+				int newRow = cell / cols;
+				int newCol = cell % cols;
+				if (grid.getHeight(newRow, newCol) > 0) {
+					disableToken(topToken(newRow, newCol));
 				}
+				pushToken(newRow, newCol, pt);
+				enableToken(pt);
+				setTokenLocation(pt, newRow, newCol);
 			}
-			
-			//flag a token in the last column as finished.
-			try {
-				if (col == cols - 1) grid[row][col].peek().setFinished();
+			else {
+				pushToken(row, col, pt);
+				enableToken(pt);
+				setTokenLocation(pt, row, col);
 			}
-			catch (DataStructureException dse) {
-				System.out.println("Error flagging token in cell (" + row + ", " + col + ") as finished.");
+		}
+		else if (pitMode == ORIGINS) {
+			//send the little guy back to the beginning
+			if ( !grid.isEnabled(row, col) ) {
+				pushToken(row, 0, pt);
+				setTokenLocation(pt, row, 0);
 			}
-			catch (ArrayIndexOutOfBoundsException aie) { // if the location to stack is bad
-				System.out.println("Error: cell (" + row + ", " + col + ") does not exist");
-				return false;
+			else {
+				pushToken(row, col, pt);
+				enableToken(pt);
+				setTokenLocation(pt, row, col);
 			}
-			//updateTurnCounter(stage);
-			return true;
-		}
-		catch (ArrayIndexOutOfBoundsException aie) { // if the location to stack is bad
-			System.out.println("Error: cell (" + row + ", " + col + ") does not exist");
-			return false;
 		}
 		
+		//flag a token in the last column as finished.
+		if (col == cols - 1) {
+			if (grid.getHeight(row, col) > 0) finishToken(topToken(row, col));
+			else listener.moveFailed("Error flagging token in cell (" + row + ", " + col + ") as finished.");
+		}
+		return StackResult.STACKED;
+	}
+	
+	/** Method isInBounds: <br />
+	 * @param row - row location
+	 * @param col - column location
+	 * @return true if the cell is on the board
+	 */
+	public boolean isInBounds(int row, int col) {
+		return row >= 0 && row < rows && col >= 0 && col < cols;
+	}
+	
+	/** Method topTokenOrNull: <br />
+	 * @param row - row location
+	 * @param col - column location
+	 * @return the token on top of the cell, or null if the cell
+	 * is empty or not on the board
+	 */
+	public PlayerToken topTokenOrNull(int row, int col) {
+		if (!isInBounds(row, col) || grid.getHeight(row, col) == 0) return null;
+		return topToken(row, col);
+	}
+	
+	/** Method getPitLayoutIndex: <br />
+	 * @return the index of this board's pit layout (see PitLayoutCatalog)
+	 */
+	public long getPitLayoutIndex() {
+		return PitLayoutCatalog.getLayoutIndex(pitGrid);
 	}
 	
 	/** Method getPitMode: <br />
@@ -225,29 +444,28 @@ public class GameBoard {
 	 * @param endCol - ending position y
 	 */
 	public void moveToken(int startRow, int startCol, int endRow, int endCol) {
-		try {
-			//make sure the token is allowed to be moved
-			if (grid[startRow][startCol].peek().isEnabled()) {
-				try {
-					//Move the token from the old location to the new location
-					stackToken(endRow, endCol, grid[startRow][startCol].pop());
-					
-					//Enable the top token of the starting location stack
-					if ( !grid[startRow][startCol].isEmpty() ) {
-						grid[startRow][startCol].peek().setEnabled();
-					}
-					
-				}
-				catch (DataStructureException dse) {
-					System.out.println("Error: no token to move at (" + startRow + ", " + startCol + ")");
-				}
-				catch (ArrayIndexOutOfBoundsException aie) {
-					System.out.println("Error: cell (" + endRow + ", " + endCol + ") does not exist");
-				}
-			}
+		if (!isInBounds(startRow, startCol)) {
+			listener.moveFailed("Error: cell (" + startRow + ", " + startCol + ") does not exist");
 		}
-		catch (DataStructureException dse) {
-			System.out.println("Error: no tokens in cell (" + startRow + ", " + startCol + ")");
+		else if (!isInBounds(endRow, endCol)) {
+			listener.moveFailed("Error: cell (" + endRow + ", " + endCol + ") does not exist");
+		}
+		else if (grid.getHeight(startRow, startCol) == 0) {
+			listener.moveFailed("Error: no tokens in cell (" + startRow + ", " + startCol + ")");
+		}
+		//make sure the token is allowed to be moved
+		else if (topToken(startRow, startCol).isEnabled()) {
+			if ( !grid.isEnabled(startRow, startCol) ) {
+				listener.moveFailed("Error: no token to move at (" + startRow + ", " + startCol + ")");
+				return;
+			}
+			//Move the token from the old location to the new location
+			stackToken(endRow, endCol, popToken(startRow, startCol));
+			
+			//Enable the top token of the starting location stack
+			if ( grid.getHeight(startRow, startCol) > 0 ) {
+				enableToken(topToken(startRow, startCol));
+			}
 		}
 	}
 	
@@ -260,7 +478,7 @@ public class GameBoard {
 	public void moveTokenUp(int startRow, int startCol) throws InvalidCellActionException{
 		if (sideMoved == false) {
 			moveToken(startRow, startCol, startRow - 1, startCol);
-			sideMoved = true;
+			setMoved(true, forwardMoved);
 		}
 		else throw new InvalidCellActionException("MoveTokenDown Failed: Sideways move already performed");
 	}
@@ -274,7 +492,7 @@ public class GameBoard {
 	public void moveTokenDown(int startRow, int startCol) throws InvalidCellActionException {
 		if (sideMoved == false) {
 			moveToken(startRow, startCol, startRow + 1, startCol);
-			sideMoved = true;
+			setMoved(true, forwardMoved);
 		}
 		else throw new InvalidCellActionException("MoveTokenDown Failed: Sideways move already performed");
 	}
@@ -289,13 +507,261 @@ public class GameBoard {
 
 		if (forwardMoved == false) {
 			moveToken(startRow, startCol, startRow, startCol + 1);
-			forwardMoved = true;
+			setMoved(sideMoved, true);
 		}
 		else throw new InvalidCellActionException("MoveTokenForward Failed: Forward move already performed");
 
 		updateTurnCounter();
 	}
 	
+	/** Method getMaxMoveCount: <br />
+	 * @return the size of an array large enough to hold every legal move
+	 * in any position of this game (see generateMoves)
+	 */
+	public int getMaxMoveCount() {
+		return Math.max(rows, 2 * tracker.getTokenCount() + tracker.getTotalTokenCount() + 1);
+	}
+	
+	/** Method generateMoves: <br />
+	 * Writes every legal move for the current player, stage, and die roll
+	 * into the given array (see Move for the encoding).  Nothing is allocated.
+	 * During placement these are the first column cells the next token may go in.
+	 * During play these are the side moves of the current player's tokens,
+	 * skipping the side move, and the forward moves out of the forward row.
+	 * @param moves - array of at least getMaxMoveCount() elements
+	 * @return number of moves written, 0 if the game is over
+	 */
+	public int generateMoves(int[] moves) {
+		int count = 0;
+		if (stage == PLACEMENT) {
+			for (int i = 0; i < rows; i++) {
+				if (grid.getHeight(i, 0) == col0MinHeight) moves[count++] = Move.encode(Move.PLACE, i, 0);
+			}
+		}
+		else if (stage == PLAY && !forwardMoved) {
+			if (!sideMoved) {
+				PlayerToken[] own = tracker.getTokensForPlayer(currentPlayer);
+				for (int i = 0; i < own.length; i++) {
+					if (isMovable(own[i])) {
+						int row = own[i].getLocationRow();
+						int col = own[i].getLocationCol();
+						if (row > 0) moves[count++] = Move.encode(Move.UP, row, col);
+						if (row < rows - 1) moves[count++] = Move.encode(Move.DOWN, row, col);
+					}
+				}
+				moves[count++] = Move.skipSide();
+			}
+			for (int i = 0; i < rowIndex.getCount(forwardRow); i++) {
+				PlayerToken pt = tracker.getToken(rowIndex.getTokenID(forwardRow, i));
+				if (isMovable(pt)) {
+					moves[count++] = Move.encode(Move.FORWARD, forwardRow, pt.getLocationCol());
+				}
+			}
+		}
+		return count;
+	}
+	
+	/** Method isMovable: <br />
+	 * @return true if the token is enabled, unfinished, and on top of its stack
+	 */
+	private boolean isMovable(PlayerToken pt) {
+		int row = pt.getLocationRow();
+		int col = pt.getLocationCol();
+		return pt.isEnabled() && !pt.isFinished() && row >= 0 && col < cols - 1 
+				&& grid.peek(row, col, 0) == pt.getTokenID();
+	}
+	
+	/** Method isLegalMove: <br />
+	 * @param move - an encoded move (see Move)
+	 * @return true if generateMoves would produce the move right now
+	 */
+	public boolean isLegalMove(int move) {
+		int type = Move.getType(move);
+		int row = Move.getRow(move);
+		int col = Move.getCol(move);
+		if (move < 0 || row >= rows || col >= cols) return false;
+		if (stage == PLACEMENT) {
+			return type == Move.PLACE && col == 0 && grid.getHeight(row, 0) == col0MinHeight;
+		}
+		if (stage != PLAY || forwardMoved) return false;
+		
+		if (type == Move.SKIP_SIDE) return !sideMoved;
+		if (type != Move.UP && type != Move.DOWN && type != Move.FORWARD) return false;
+		if (grid.getHeight(row, col) == 0) return false;
+		PlayerToken pt = topToken(row, col);
+		if (!isMovable(pt)) return false;
+		
+		if (type == Move.FORWARD) return row == forwardRow;
+		if (sideMoved || pt.getPlayerID() != currentPlayer) return false;
+		if (type == Move.UP) return row > 0;
+		else return row < rows - 1;
+	}
+	
+	/** Method applyMove: <br />
+	 * Performs a legal move and everything that follows from it:
+	 * a placement ends the turn (and the placement stage once every 
+	 * token is placed), a side move ends the turn if nothing can move
+	 * forward, and a forward move ends the turn.  The game is over as
+	 * soon as the tracker has a winner.
+	 * @param move - an encoded move (see Move)
+	 * @return true if the move was made, false if it was not legal
+	 */
+	public boolean applyMove(int move) {
+		if (!isLegalMove(move)) return false;
+		int row = Move.getRow(move);
+		int col = Move.getCol(move);
+		
+		switch (Move.getType(move)) {
+		case Move.PLACE:
+			stackToken(row, col, tracker.getTokensForPlayer(currentPlayer)[currentRound]);
+			updateTurnCounter();
+			if (currentRound >= tracker.getTokenCount()) setGameStage();
+			return true;
+		case Move.UP:
+		case Move.DOWN:
+			moveToken(row, col, Move.getEndRow(move), col);
+			setMoved(true, false);
+			break;
+		case Move.SKIP_SIDE:
+			setMoved(true, false);
+			break;
+		case Move.FORWARD:
+			setMoved(true, false);
+			moveToken(row, col, row, col + 1);
+			setMoved(true, true);
+			break;
+		}
+		
+		//forward moves always end the turn, side moves only if nothing can go forward
+		if (forwardMoved || rowIndex.isEmpty(forwardRow)) updateTurnCounter();
+		if (tracker.hasWinner()) setGameOver();
+		return true;
+	}
+	
+	/** Method makeMove: <br />
+	 * Like applyMove, but every change to the board is recorded 
+	 * so that unmake() can take the move back.  Moves can be nested:
+	 * each unmake() takes back the latest move not yet taken back.
+	 * The die roll for the next turn is taken back too, but the random
+	 * number generator is not rewound.
+	 * @param move - an encoded move (see Move)
+	 * @return true if the move was made, false if it was not legal 
+	 * (in which case there is nothing to unmake)
+	 */
+	public boolean makeMove(int move) {
+		mark();
+		if (applyMove(move)) return true;
+		markCount--;
+		return false;
+	}
+	
+	/** Method mark: <br />
+	 * Starts recording changes to the board, so that the next unmake()
+	 * returns the board to exactly its current state.  Use this around
+	 * changes other than makeMove, such as setForwardRow.
+	 */
+	public void mark() {
+		if (markCount == undoMarks.length) {
+			int[] larger = new int[Math.max(16, markCount * 2)];
+			System.arraycopy(undoMarks, 0, larger, 0, markCount);
+			undoMarks = larger;
+		}
+		undoMarks[markCount++] = undoSize;
+	}
+	
+	/** Method getUndoDepth: <br />
+	 * @return number of marks that have not been taken back yet
+	 */
+	public int getUndoDepth() {
+		return markCount;
+	}
+	
+	/** Method unmake: <br />
+	 * Reverses every change made since the latest mark, in reverse order.
+	 * Takes time proportional to the number of changes, allocates nothing,
+	 * and sends no events to the listener.
+	 * @throws IllegalStateException - if there is no mark to go back to
+	 */
+	public void unmake() {
+		if (markCount == 0) throw new IllegalStateException("Nothing to unmake");
+		int start = undoMarks[--markCount];
+		undoing = true;
+		while (undoSize > start) {
+			undoSize -= UNDO_RECORD;
+			int a = undoLog[undoSize + 1];
+			int b = undoLog[undoSize + 2];
+			int c = undoLog[undoSize + 3];
+			int d = undoLog[undoSize + 4];
+			PlayerToken pt;
+			switch (undoLog[undoSize]) {
+			case UNDO_PUSH:
+				popToken(a, b);
+				break;
+			case UNDO_POP:
+				pushToken(a, b, tracker.getToken(c));
+				break;
+			case UNDO_TOKEN_ENABLED:
+				pt = tracker.getToken(a);
+				if (b == 1) enableToken(pt);
+				else disableToken(pt);
+				break;
+			case UNDO_TOKEN_FINISHED:
+				pt = tracker.getToken(a);
+				if (c == 0) {
+					pt.clearFinished();
+					hash ^= keys.finished(a);
+				}
+				if (b == 1) enableToken(pt);
+				break;
+			case UNDO_TOKEN_UNWINNABLE:
+				tracker.getToken(a).setWinnable();
+				hash ^= keys.unwinnable(a);
+				break;
+			case UNDO_TOKEN_LOCATION:
+				setTokenLocation(tracker.getToken(a), b, c);
+				break;
+			case UNDO_CELL_ENABLED:
+				setCellEnabled(a, b, c == 1);
+				break;
+			case UNDO_TURN:
+				hash ^= keys.player(currentPlayer) ^ keys.forwardRow(forwardRow) ^ keys.player(b) ^ keys.forwardRow(d);
+				turnCounter = a;
+				currentPlayer = b;
+				currentRound = c;
+				forwardRow = d;
+				break;
+			case UNDO_FLAGS:
+				setMoved(a == 1, b == 1);
+				break;
+			case UNDO_STAGE:
+				setStage(a);
+				break;
+			case UNDO_FORWARD_ROW:
+				setForwardRow(a);
+				break;
+			}
+		}
+		undoing = false;
+	}
+	
+	/** Method record: <br />
+	 * Adds a change to the undo log if a mark is set.
+	 */
+	private void record(int op, int a, int b, int c, int d) {
+		if (markCount == 0 || undoing) return;
+		if (undoSize + UNDO_RECORD > undoLog.length) {
+			int[] larger = new int[Math.max(256, undoLog.length * 2)];
+			System.arraycopy(undoLog, 0, larger, 0, undoSize);
+			undoLog = larger;
+		}
+		undoLog[undoSize] = op;
+		undoLog[undoSize + 1] = a;
+		undoLog[undoSize + 2] = b;
+		undoLog[undoSize + 3] = c;
+		undoLog[undoSize + 4] = d;
+		undoSize += UNDO_RECORD;
+	}
+	
 	/** Method prevColsAreEmpty: <br />
 	 * Tests to see if columns before the current selection are empty.
 	 * **For use with cells defined as pits.
@@ -303,12 +769,66 @@ public class GameBoard {
 	 * @return true if they are empty, false otherwise
 	 */
 	public boolean prevColsAreEmpty(int col) {
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < col; j++) {
-				if (!grid[i][j].isEmpty()) return false;
-			}
+		return col <= rearCol;
+	}
+	
+	/** Method getRearmostColumn: <br />
+	 * @return the lowest column that holds a token, or getCols() if the board is empty
+	 */
+	public int getRearmostColumn() {
+		return rearCol;
+	}
+	
+	/** Method getColumnTokenCount: <br />
+	 * @param col - column of the board
+	 * @return number of tokens stacked in the column
+	 */
+	public int getColumnTokenCount(int col) {
+		return colTokenCount[col];
+	}
+	
+	/** Method getMinFirstColumnHeight: <br />
+	 * @return the height of the smallest stack in the first column.  
+	 * During placement, tokens may only be stacked on a stack of this height.
+	 */
+	public int getMinFirstColumnHeight() {
+		return col0MinHeight;
+	}
+	
+	/** Method pushToken: <br />
+	 * Stacks a token in a cell and updates the column counts.
+	 */
+	private void pushToken(int row, int col, PlayerToken pt) {
+		record(UNDO_PUSH, row, col, pt.getTokenID(), 0);
+		grid.push(row, col, pt.getTokenID());
+		hash ^= keys.stacked(pt.getTokenID(), row * cols + col, grid.getHeight(row, col) - 1);
+		colTokenCount[col]++;
+		if (col < rearCol) rearCol = col;
+		if (col == 0) {
+			int height = grid.getHeight(row, col);
+			col0HeightCount[height - 1]--;
+			col0HeightCount[height]++;
+			if (col0HeightCount[col0MinHeight] == 0) col0MinHeight++;
 		}
-		return true;
+	}
+	
+	/** Method popToken: <br />
+	 * Takes the top token off of a cell and updates the column counts.
+	 * @return the token removed
+	 */
+	private PlayerToken popToken(int row, int col) {
+		PlayerToken pt = tracker.getToken(grid.pop(row, col));
+		record(UNDO_POP, row, col, pt.getTokenID(), 0);
+		hash ^= keys.stacked(pt.getTokenID(), row * cols + col, grid.getHeight(row, col));
+		colTokenCount[col]--;
+		while (rearCol < cols && colTokenCount[rearCol] == 0) rearCol++;
+		if (col == 0) {
+			int height = grid.getHeight(row, col);
+			col0HeightCount[height + 1]--;
+			col0HeightCount[height]++;
+			if (height < col0MinHeight) col0MinHeight = height;
+		}
+		return pt;
 	}
 	
 	/** Method getRows: <br />
@@ -332,7 +852,82 @@ public class GameBoard {
 	 * @return number of items stacked in the cell
 	 */
 	public int getStackCount(int row, int col) {
-		return grid[row][col].getNumberOfItems();
+		return grid.getHeight(row, col);
+	}
+	
+	/** Method getTokenAt: <br />
+	 * @param depth - 0 for the top token, 1 for the token beneath it, etc.
+	 * @return the token ID at that depth of the cell's stack, or -1 if the stack is not that high
+	 */
+	public int getTokenAt(int row, int col, int depth) {
+		return grid.peek(row, col, depth);
+	}
+	
+	/** Method getTokenRow: <br />
+	 * @return row location of the token, -1 if it has not been placed
+	 */
+	public int getTokenRow(int tokenID) {
+		return tracker.getToken(tokenID).getLocationRow();
+	}
+	
+	/** Method getTokenCol: <br />
+	 * @return column location of the token, -1 if it has not been placed
+	 */
+	public int getTokenCol(int tokenID) {
+		return tracker.getToken(tokenID).getLocationCol();
+	}
+	
+	/** Method isTokenEnabled: <br />
+	 * @return true if the token may move (it is not stuck in a pit or beneath another token)
+	 */
+	public boolean isTokenEnabled(int tokenID) {
+		return tracker.getToken(tokenID).isEnabled();
+	}
+	
+	/** Method isTokenFinished: <br />
+	 * @return true if the token has reached the last column
+	 */
+	public boolean isTokenFinished(int tokenID) {
+		return tracker.getToken(tokenID).isFinished();
+	}
+	
+	/** Method isTokenWinnable: <br />
+	 * @return false if the token fell into a black hole and can no longer finish
+	 */
+	public boolean isTokenWinnable(int tokenID) {
+		return tracker.getToken(tokenID).isWinnable();
+	}
+	
+	/** Method getTurnsToFinish: <br />
+	 * Reads the token's entry in the layout's FinishTable:
+	 * <ul>
+	 * <li>0 if the token has finished;</li>
+	 * <li>the table's lost cost if it fell into a black hole and can no longer finish;</li>
+	 * <li>the mean over the first column if it has not been placed yet;</li>
+	 * <li>the expected turns after landing in the pit if its cell is a closed pit;</li>
+	 * <li>otherwise the expected turns from its cell.</li>
+	 * </ul>
+	 * The table is looked up the first time this is called.
+	 * @return the expected number of turns (counting every player's) the token needs to finish
+	 */
+	public double getTurnsToFinish(int tokenID) {
+		PlayerToken pt = tracker.getToken(tokenID);
+		if (pt.isFinished()) return 0;
+		FinishTable table = getFinishTable();
+		if (!pt.isWinnable()) return table.getLostTurns();
+		int row = pt.getLocationRow();
+		int col = pt.getLocationCol();
+		if (col < 0) return table.getStartTurns();
+		return grid.isEnabled(row, col) ? table.getTurns(row, col) : table.getPitTurns(row, col);
+	}
+	
+	/** Method getFinishTable: <br />
+	 * @return the expected turns to finish from each cell of this board's
+	 * layout (shared with every board of the same layout, pit mode, and player count)
+	 */
+	public FinishTable getFinishTable() {
+		if (finishTable == null) finishTable = FinishTable.forLayout(pitGrid, pitMode, tracker.getPlayerCount());
+		return finishTable;
 	}
 	
 	/** Method updateTurnCounter: <br />
@@ -341,20 +936,18 @@ public class GameBoard {
 	 */
 	public void updateTurnCounter() {
 		//check for end of turn
-		if (stage == PLACEMENT || forwardMoved || getTokensFromForwardRow().length == 0) {
-			System.out.println("Turn has been updated:");
+		if (stage == PLACEMENT || forwardMoved || rowIndex.isEmpty(forwardRow)) {
+			record(UNDO_TURN, turnCounter, currentPlayer, currentRound, forwardRow);
+			hash ^= keys.player(currentPlayer) ^ keys.forwardRow(forwardRow);
 			turnCounter++;
 			currentPlayer = turnCounter % tracker.getPlayerCount();
 			currentRound = turnCounter / tracker.getPlayerCount();
 			
-			sideMoved = false;
-			forwardMoved = false;
+			setMoved(false, false);
 			//roll the die
 			forwardRow = dieRoll.nextInt(rows);
-			System.out.println("turnCounter: " + turnCounter +
-					"\ncurrentPlayer: " + currentPlayer + 
-					"\ncurrentRound: " + currentRound + 
-					"\nDieRoll: " + forwardRow);
+			hash ^= keys.player(currentPlayer) ^ keys.forwardRow(forwardRow);
+			listener.turnUpdated(turnCounter, currentPlayer, currentRound, forwardRow);
 		}
 	}
 	
@@ -362,51 +955,251 @@ public class GameBoard {
 	 * Restarts the turn counter (for a new game)
 	 */
 	public void resetTurnCounter() {
+		record(UNDO_TURN, turnCounter, currentPlayer, currentRound, forwardRow);
 		turnCounter = -1;
 		//reset everything
 		updateTurnCounter();
 	}
 	
 	/** Method getTokensFromForwardRow: <br />
+	 * Builds a new array on every call; use getForwardTokenCount and
+	 * getForwardToken to look at the forward row without allocating.
 	 * @return PlayerToken array - collection of tokens present in
-	 * the forward movement row
+	 * the forward movement row, ordered by player and then by token
 	 */
 	public PlayerToken[] getTokensFromForwardRow() {
-		PlayerToken[] returnForwardTokens;
-		//find any tokens in the row, add them to the arraylist
-		ArrayList<PlayerToken> forwardTokens = new ArrayList<PlayerToken>();
-		for (int i = 0; i < tracker.getPlayerCount(); i++) {
-			for (int j = 0; j < tracker.getTokenCount(); j++) {
-				if (tracker.getTokensForPlayer(i)[j].getLocationRow() == getForwardRow() 
-						&& tracker.getTokensForPlayer(i)[j].isEnabled()) {
-					forwardTokens.add(tracker.getTokensForPlayer(i)[j]);
-				}
+		int count = rowIndex.getCount(forwardRow);
+		int[] ids = new int[count];
+		//insertion sort the IDs so the order matches the players' token arrays
+		for (int i = 0; i < count; i++) {
+			int id = rowIndex.getTokenID(forwardRow, i);
+			int j = i;
+			while (j > 0 && ids[j - 1] > id) {
+				ids[j] = ids[j - 1];
+				j--;
 			}
+			ids[j] = id;
 		}
-		//convert the arraylist to a standard array of the proper size
-		returnForwardTokens = new PlayerToken[forwardTokens.size()];
-		return forwardTokens.toArray(returnForwardTokens);
+		PlayerToken[] returnForwardTokens = new PlayerToken[count];
+		for (int i = 0; i < count; i++) {
+			returnForwardTokens[i] = tracker.getToken(ids[i]);
+		}
+		return returnForwardTokens;
 	}
 	
+	/** Method getForwardTokenCount: <br />
+	 * @return number of tokens that can move forward this turn
+	 */
+	public int getForwardTokenCount() {
+		return rowIndex.getCount(forwardRow);
+	}
+	
+	/** Method getForwardToken: <br />
+	 * @param i - from 0 to getForwardTokenCount() - 1
+	 * @return one of the tokens that can move forward this turn
+	 */
+	public PlayerToken getForwardToken(int i) {
+		return tracker.getToken(rowIndex.getTokenID(forwardRow, i));
+	}
+	
+	/** Method hasTokensInRow: <br />
+	 * @param row - row of the board
+	 * @return true if any enabled token is in the row
+	 */
+	public boolean hasTokensInRow(int row) {
+		return ! rowIndex.isEmpty(row);
+	}
+	
+	/** Method getRowTokenCount: <br />
+	 * @param row - row of the board
+	 * @return number of enabled tokens in the row
+	 */
+	public int getRowTokenCount(int row) {
+		return rowIndex.getCount(row);
+	}
+	
+	/** Method getRowToken: <br />
+	 * @param row - row of the board
+	 * @param i - from 0 to getRowTokenCount(row) - 1
+	 * @return one of the enabled tokens in the row
+	 */
+	public PlayerToken getRowToken(int row, int i) {
+		return tracker.getToken(rowIndex.getTokenID(row, i));
+	}
+	
+	/** Method canPlayerWin: <br />
+	 * In BLACK_HOLES mode, tells the listener about every player
+	 * that no longer has enough tokens left to win.
+	 */
 	public void canPlayerWin() {
 		if (getPitMode() == BLACK_HOLES) {
-			Integer[] lostPlayers = getTracker().getPlayersThatCannotWin();
+			int[] lostPlayers = getTracker().getPlayersThatCannotWin();
 			for (int i = 0; i < lostPlayers.length; i++) {
-				JOptionPane.showMessageDialog(null,
-						getTracker().getPlayerColorName(lostPlayers[i]) + " cannot win the game.");
+				listener.playerCannotWin(lostPlayers[i], getTracker().getPlayerColorName(lostPlayers[i]));
 			}
 			
 		}
 	}
 	
+	/** Method getGameListener: <br />
+	 * @return the listener receiving this board's events
+	 */
+	public GameListener getGameListener() {
+		return listener;
+	}
+	
+	/** Method setGameListener: <br />
+	 * Replaces the listener receiving this board's events
+	 * @param listener - the new listener
+	 */
+	public void setGameListener(GameListener listener) {
+		this.listener = listener;
+	}
+	
 	/** Method getCell: <br />
-	 * Returns a GameBoardCell stack for further operations
+	 * Returns a GameBoardCell stack for further operations.
+	 * With PACKED_STORAGE there are no cell objects, so a copy of the
+	 * cell is built instead; changes to the copy do not affect the board.
 	 * @param row - row location of the cell
 	 * @param col - column location of the cell
 	 * @return GameBoardCell the specified cell
 	 */
 	public GameBoardCell getCell(int row, int col) {
-		return grid[row][col];
+		if (grid instanceof CellGridStorage) {
+			return ((CellGridStorage) grid).getCell(row, col);
+		}
+		GameBoardCell cell = new GameBoardCell(grid.isEnabled(row, col), pitMode, tracker.getTotalTokenCount());
+		for (int depth = grid.getHeight(row, col) - 1; depth >= 0; depth--) {
+			cell.push(tracker.getToken(grid.peek(row, col, depth)));
+		}
+		return cell;
+	}
+	
+	/** Method isCellEnabled: <br />
+	 * @param row - row location of the cell
+	 * @param col - column location of the cell
+	 * @return true if tokens in the cell may move, false for a closed pit
+	 */
+	public boolean isCellEnabled(int row, int col) {
+		return grid.isEnabled(row, col);
+	}
+	
+	/** Method enableToken: <br />
+	 * Enables a token and keeps the row index up to date.
+	 */
+	private void enableToken(PlayerToken pt) {
+		if (!pt.isEnabled()) {
+			record(UNDO_TOKEN_ENABLED, pt.getTokenID(), 0, 0, 0);
+			hash ^= keys.enabled(pt.getTokenID());
+		}
+		pt.setEnabled();
+		rowIndex.update(pt.getTokenID(), pt.getLocationRow(), true);
+	}
+	
+	/** Method disableToken: <br />
+	 * Disables a token and keeps the row index up to date.
+	 */
+	private void disableToken(PlayerToken pt) {
+		if (pt.isEnabled()) {
+			record(UNDO_TOKEN_ENABLED, pt.getTokenID(), 1, 0, 0);
+			hash ^= keys.enabled(pt.getTokenID());
+		}
+		pt.setDisabled();
+		rowIndex.update(pt.getTokenID(), pt.getLocationRow(), false);
+	}
+	
+	/** Method finishToken: <br />
+	 * Flags a token as finished (which also disables it).
+	 */
+	private void finishToken(PlayerToken pt) {
+		record(UNDO_TOKEN_FINISHED, pt.getTokenID(), pt.isEnabled() ? 1 : 0, pt.isFinished() ? 1 : 0, 0);
+		if (pt.isEnabled()) hash ^= keys.enabled(pt.getTokenID());
+		if (!pt.isFinished()) hash ^= keys.finished(pt.getTokenID());
+		pt.setFinished();
+		rowIndex.update(pt.getTokenID(), pt.getLocationRow(), false);
+	}
+	
+	/** Method setTokenLocation: <br />
+	 * Moves a token and keeps the row index up to date.
+	 */
+	private void setTokenLocation(PlayerToken pt, int row, int col) {
+		record(UNDO_TOKEN_LOCATION, pt.getTokenID(), pt.getLocationRow(), pt.getLocationCol(), 0);
+		pt.setLocation(row, col);
+		rowIndex.update(pt.getTokenID(), row, pt.isEnabled());
+	}
+	
+	/** Method makeUnwinnable: <br />
+	 * Flags a token as lost for good (BLACK_HOLES).
+	 */
+	private void makeUnwinnable(PlayerToken pt) {
+		if (pt.isWinnable()) {
+			record(UNDO_TOKEN_UNWINNABLE, pt.getTokenID(), 0, 0, 0);
+			hash ^= keys.unwinnable(pt.getTokenID());
+		}
+		pt.setUnwinnable();
+	}
+	
+	/** Method setCellEnabled: <br />
+	 * Opens or closes a cell.
+	 */
+	private void setCellEnabled(int row, int col, boolean enabled) {
+		if (grid.isEnabled(row, col) != enabled) {
+			record(UNDO_CELL_ENABLED, row, col, enabled ? 0 : 1, 0);
+			hash ^= keys.closed(row * cols + col);
+			if (col < cols - 1) {
+				int cell = row * cols + col;
+				if (enabled) {
+					destSlot[cell] = destCount;
+					destCells[destCount++] = cell;
+				}
+				else {
+					//move the last cell into the hole
+					int last = destCells[--destCount];
+					destCells[destSlot[cell]] = last;
+					destSlot[last] = destSlot[cell];
+					destSlot[cell] = -1;
+				}
+			}
+		}
+		grid.setEnabled(row, col, enabled);
+	}
+	
+	/** Method setMoved: <br />
+	 * Sets the sideMoved and forwardMoved flags.
+	 */
+	private void setMoved(boolean side, boolean forward) {
+		if (side != sideMoved || forward != forwardMoved) {
+			record(UNDO_FLAGS, sideMoved ? 1 : 0, forwardMoved ? 1 : 0, 0, 0);
+			hash ^= keys.moved(sideMoved, forwardMoved) ^ keys.moved(side, forward);
+		}
+		sideMoved = side;
+		forwardMoved = forward;
+	}
+	
+	/** Method setStage: <br />
+	 * Changes the game stage without telling the listener.
+	 */
+	private void setStage(int newStage) {
+		record(UNDO_STAGE, stage, 0, 0, 0);
+		hash ^= keys.stage(stage) ^ keys.stage(newStage);
+		stage = newStage;
+	}
+	
+	/** Method topToken: <br />
+	 * @return the token on top of a cell known to be non-empty
+	 */
+	private PlayerToken topToken(int row, int col) {
+		return tracker.getToken(grid.peek(row, col, 0));
+	}
+	
+	/** Method getHash: <br />
+	 * Positions that are the same (apart from the turn counter) 
+	 * have the same hash, however they were reached.  Boards with the same dimensions and players
+	 * use the same keys, so hashes from different boards can be compared.
+	 * @return 64-bit Zobrist hash of the board (see ZobristKeys)
+	 */
+	public long getHash() {
+		return hash;
 	}
 	
 	/** Method getTracker: <br />
@@ -417,6 +1210,50 @@ public class GameBoard {
 		return tracker;
 	}
 	
+	/** Method getPlayerCount: <br />
+	 * @return number of players
+	 */
+	public int getPlayerCount() {
+		return tracker.getPlayerCount();
+	}
+	
+	/** Method getTokenCount: <br />
+	 * @return number of tokens each player has
+	 */
+	public int getTokenCount() {
+		return tracker.getTokenCount();
+	}
+	
+	/** Method getWinCount: <br />
+	 * @return number of tokens a player must finish to win
+	 */
+	public int getWinCount() {
+		return tracker.getWinCount();
+	}
+	
+	/** Method getFinishedCount: <br />
+	 * @return number of the player's tokens that have finished
+	 */
+	public int getFinishedCount(int playerID) {
+		return tracker.getFinishedCount(playerID);
+	}
+	
+	/** Method getWinnableCount: <br />
+	 * @return number of the player's tokens that can still finish
+	 */
+	public int getWinnableCount(int playerID) {
+		return tracker.getWinnableCount(playerID);
+	}
+	
+	/** Method getWinner: <br />
+	 * @return playerID of the winning player, or PlayerTracker.NO_WINNER
+	 * until the stage is GAME_OVER (and if the game ended without a winner)
+	 */
+	public int getWinner() {
+		if (stage != GAME_OVER || !tracker.hasWinner()) return tracker.NO_WINNER;
+		return tracker.getWinner();
+	}
+	
 	/** Method getCurrentPlayer: <br />
 	 * @return the playerID of the current player
 	 */
@@ -424,6 +1261,13 @@ public class GameBoard {
 		return currentPlayer;
 	}
 	
+	/** Method getTurnCounter: <br />
+	 * @return the number of turns taken since the start of the game
+	 */
+	public int getTurnCounter() {
+		return turnCounter;
+	}
+	
 	/** Method getCurrentRound: <br />
 	 * @return the current round (number of moves made by the first player)
 	 */
@@ -438,6 +1282,17 @@ public class GameBoard {
 		return forwardRow;
 	}
 	
+	/** Method setForwardRow: <br />
+	 * Replaces the die roll for the current turn, so that a search
+	 * can try every outcome of the die (the change can be undone).
+	 * @param row - the row whose tokens may move forward this turn
+	 */
+	public void setForwardRow(int row) {
+		record(UNDO_FORWARD_ROW, forwardRow, 0, 0, 0);
+		hash ^= keys.forwardRow(forwardRow) ^ keys.forwardRow(row);
+		forwardRow = row;
+	}
+	
 	/** Method getStage: <br />
 	 * @return int the game stage identifier
 	 */
@@ -449,31 +1304,31 @@ public class GameBoard {
 	 * sets the game stage identifier to PLAY
 	 */
 	public void setGameStage() {
-		stage = PLAY;
-		System.out.println("Stage: HedgeHog Movement");
+		setStage(PLAY);
+		listener.stageChanged(stage);
 	}
 
 	/** Method setPlacementStage: <br />
 	 * sets the game stage identifier to PLACEMENT
 	 */
 	public void setPlacementStage() {
-		stage = PLACEMENT;
-		System.out.println("Stage: HedgeHog Placement");
+		setStage(PLACEMENT);
+		listener.stageChanged(stage);
 	}
 	
 	/** Method setGameOver: <br />
 	 * sets the game stage identifier to GAME_OVER
 	 */
 	public void setGameOver() {
-		stage = GAME_OVER;
-		System.out.println("Stage: Game Over");
+		setStage(GAME_OVER);
+		listener.stageChanged(stage);
 	}
 	
 	/** Method setSideMoved: <br />
 	 * sets the sideMoved flag to true
 	 */
 	public void setSideMoved() {
-		sideMoved = true;
+		setMoved(true, forwardMoved);
 	}
 	
 	/** Method sideWasMoved: <br />
@@ -492,58 +1347,80 @@ public class GameBoard {
 	
 	/** Method printGame: <br />
 	 * prints a text representation of the board layout to the java terminal
+	 * (written all at once, see appendGame)
 	 */
 	public void printGame() {
-		for (int a = 0; a < cols; a++) {
-			System.out.print("*****");
-		}
-		System.out.println("*");
+		if (renderBuffer == null) renderBuffer = new StringBuilder();
+		renderBuffer.setLength(0);
+		appendGame(renderBuffer);
+		System.out.print(renderBuffer);
+		System.out.flush();
+	}
+	
+	/** Method appendGame: <br />
+	 * Writes the text representation of the board used by printGame:
+	 * a row of asterisks between board rows, and for each cell a marker 
+	 * ('>' in the forward row, '*' elsewhere) followed by the cell (see appendCell).
+	 * @param sb - the text is added to the end of this buffer
+	 * @return sb
+	 */
+	public StringBuilder appendGame(StringBuilder sb) {
+		appendBorder(sb);
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
-				try {
-					if (i == forwardRow )
-						System.out.print(">" + grid[i][j].peek().toString(1));
-					else
-						System.out.print("*" + grid[i][j].peek().toString(1));
-				}
-				catch (DataStructureException dse) {
-					if ( i == forwardRow ) {
-						if ( !grid[i][j].isEnabled() ) System.out.print("> XX ");
-						else System.out.print(">    ");
-					}
-					else {
-						if ( !grid[i][j].isEnabled() ) System.out.print("* XX ");
-						else System.out.print("*    ");
-					}
-				}
-			}
-			System.out.println("*");
-			for (int a = 0; a < cols; a++) {
-				System.out.print("*****");
+				sb.append(i == forwardRow ? '>' : '*');
+				appendCell(sb, i, j);
 			}
-			System.out.println("*");
+			sb.append("*\n");
+			appendBorder(sb);
 		}
-		System.out.println("");
-		
+		sb.append('\n');
+		return sb;
+	}
+	
+	/** Method appendCell: <br />
+	 * Writes four characters for a cell: the player ID of the top token 
+	 * followed by F if it is finished or D if it is disabled, XX for an 
+	 * empty closed pit, or blanks for an empty cell.
+	 * @param sb - the text is added to the end of this buffer
+	 * @param row - row location of the cell
+	 * @param col - column location of the cell
+	 */
+	public void appendCell(StringBuilder sb, int row, int col) {
+		if (grid.getHeight(row, col) > 0) {
+			PlayerToken pt = topToken(row, col);
+			sb.append(' ').append(pt.getPlayerID());
+			if (pt.isEnabled()) sb.append("  ");
+			else if (pt.isFinished()) sb.append("F ");
+			else sb.append("D ");
+		}
+		else if ( !grid.isEnabled(row, col) ) sb.append(" XX ");
+		else sb.append("    ");
+	}
+	
+	private void appendBorder(StringBuilder sb) {
+		for (int a = 0; a < cols; a++) {
+			sb.append("*****");
+		}
+		sb.append("*\n");
 	}
 		
 	/** Method toString: <br />
 	 * @return String - grid format text output of the top element of each cell.
 	 */
 	public String toString() {
-		String str = "";
-
+		StringBuilder str = new StringBuilder();
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
-				try {
-					str += grid[i][j].peek().toString(1) + " | ";
+				if (grid.getHeight(i, j) > 0) {
+					str.append(topToken(i, j).toString(1)).append(" | ");
 				}
-				catch (DataStructureException dse) {
-					str += " * | ";
+				else {
+					str.append(" * | ");
 				}
 			}
-			str += ("\n");
+			str.append('\n');
 		}
-		return "";
+		return str.toString();
 	}
 }
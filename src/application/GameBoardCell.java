@@ -1,16 +1,16 @@
 package application;
 
+import linkedlists.ArrayStack;
 import linkedlists.DataStructureException;
-import linkedlists.StackLinkedList;
-import linkedlists.Node;
 
 /** Class GameBoardCell: <br />
- * Creates a Stack Linked List of type PlayerToken
+ * Creates an Array Stack of type PlayerToken, large enough to hold
+ * every token in the game, so stacking tokens never allocates.
  * @author Joshua Kovach
  * @version 1.0
  *
  */
-public class GameBoardCell extends StackLinkedList<PlayerToken> {
+public class GameBoardCell extends ArrayStack<PlayerToken> {
 	private boolean enabled;
 	private int pitMode;
 	
@@ -18,9 +18,11 @@ public class GameBoardCell extends StackLinkedList<PlayerToken> {
 	 * Creates a cell that contains a stack of PlayerTokens
 	 * that is either enabled or disabled
 	 * @param enabled - true if enabled, false if disabled
+	 * @param pitType - PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 * @param capacity - the most tokens the cell can hold (all tokens in the game)
 	 */
-	public GameBoardCell(boolean enabled, int pitType) {
-		super();
+	public GameBoardCell(boolean enabled, int pitType, int capacity) {
+		super(capacity);
 		setEnabled(enabled);
 		setPitMode(pitType);
 	}
@@ -65,15 +67,20 @@ public class GameBoardCell extends StackLinkedList<PlayerToken> {
 		else throw new InvalidCellActionException("cell is not enabled");
 	}
 	
-	/** Method peekNext: <br />
-	 * Allows the board to see each item in the stack.  Must use getData()
-	 * method to access the data contained in the node.
-	 * @return
-	 * @throws DataStructureException
+	/** Method tryPop: <br />
+	 * @return the item deleted, or null if the cell is empty or not enabled
 	 */
-	public Node<PlayerToken> peekNext() throws DataStructureException {
-		if (isEmpty())
-			throw new DataStructureException("empty stack: cannot peek");
-		else return head.getNext();
+	public PlayerToken tryPop() {
+		if (enabled) return super.tryPop();
+		else return null;
+	}
+	
+	/** Method removeTop: <br />
+	 * Removes the top token whether or not the cell is enabled
+	 * (used by the board to take back a move).
+	 * @return the item deleted, or null if the cell is empty
+	 */
+	PlayerToken removeTop() {
+		return super.tryPop();
 	}
 }
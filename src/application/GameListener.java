@@ -0,0 +1,48 @@
+package application;
+
+/** Interface GameListener: <br />
+ * Receives the side effects of a GameBoard (turn changes, stage changes,
+ * failed moves and lost players) so the board itself never has to
+ * print to the console or open a dialog.  Clients pick the listener that
+ * suits them: NullGameListener for simulations, ConsoleGameListener for the
+ * text client, or a Swing listener for the game window.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public interface GameListener {
+	
+	/** Method tokensAssigned: <br />
+	 * Called once per player when a new board is created.
+	 * @param playerID - the player receiving the tokens
+	 * @param tokenCount - number of tokens belonging to the player
+	 */
+	public void tokensAssigned(int playerID, int tokenCount);
+	
+	/** Method turnUpdated: <br />
+	 * Called every time the turn counter advances and the die is rolled.
+	 * @param turnCounter - the new turn number
+	 * @param currentPlayer - the player whose turn it now is
+	 * @param currentRound - the current round
+	 * @param forwardRow - the die roll for the new turn
+	 */
+	public void turnUpdated(int turnCounter, int currentPlayer, int currentRound, int forwardRow);
+	
+	/** Method stageChanged: <br />
+	 * @param stage - PLACEMENT(0), PLAY(1) or GAME_OVER(2)
+	 */
+	public void stageChanged(int stage);
+	
+	/** Method moveFailed: <br />
+	 * Called when a stack or move request could not be carried out.
+	 * @param message - description of the failure
+	 */
+	public void moveFailed(String message);
+	
+	/** Method playerCannotWin: <br />
+	 * Called for each player who no longer has enough winnable tokens.
+	 * @param playerID - the player that cannot win
+	 * @param colorName - the name of the player's color
+	 */
+	public void playerCannotWin(int playerID, String colorName);
+}
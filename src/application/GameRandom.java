@@ -0,0 +1,127 @@
+package application;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Class GameRandom: <br />
+ * A fast, seedable, splittable random number generator (SplitMix64)
+ * for die rolls, worm holes, and pit layouts.  It is a java.util.Random,
+ * so it can be used anywhere a Random is expected, but it keeps its
+ * state in a plain long instead of sharing an atomic seed: each board
+ * (or each thread) should have its own GameRandom.  It is not thread safe.
+ * <br />
+ * Two generators made with the same seed produce the same numbers,
+ * so a game can be replayed from its seed.  split() makes an independent
+ * generator from this one, for handing a reproducible stream to each
+ * game or worker of a simulation.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class GameRandom extends Random {
+	private static final long serialVersionUID = 1L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** Seeds generators made without a seed, so that each one differs */
+	private static final AtomicLong defaultSeeds =
+			new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long state;			//advances by gamma for every number
+	private final long gamma;	//odd step between states
+
+	/** Default Constructor: <br />
+	 * Creates a generator with a seed that differs from every other
+	 * default generator in this run of the program.
+	 */
+	public GameRandom() {
+		this(defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA));
+	}
+
+	/** Constructor: <br />
+	 * Creates a generator that always produces the same numbers for a seed.
+	 * @param seed - the seed
+	 */
+	public GameRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private GameRandom(long seed, long gamma) {
+		super(0L);
+		this.state = seed;
+		this.gamma = gamma;
+	}
+
+	/** Method split: <br />
+	 * @return a new generator whose numbers are independent of this one's.
+	 * The new generator is determined by this one's state.
+	 */
+	public GameRandom split() {
+		return new GameRandom(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/** Method setSeed: <br />
+	 * Restarts the generator as if it had just been made with the seed
+	 * @param seed - the seed
+	 */
+	public void setSeed(long seed) {
+		state = seed;
+	}
+
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+
+	/** Method nextInt: <br />
+	 * @param bound - number of possible results (positive)
+	 * @return a uniformly distributed number from 0 to bound - 1
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+		int r = mix32(nextSeed());
+		int m = bound - 1;
+		if ((bound & m) == 0) return r & m;
+		//reject the few values that would make low numbers more likely
+		for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1);
+		return r;
+	}
+
+	public boolean nextBoolean() {
+		return mix32(nextSeed()) < 0;
+	}
+
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	private long nextSeed() {
+		return state += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		//make sure the gamma flips enough bits to spread the states out
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
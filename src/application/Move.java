@@ -0,0 +1,102 @@
+package application;
+
+/** Class Move: <br />
+ * Encodes a single game action as an int, so moves can be generated 
+ * into and read out of plain int arrays.  A move is made of a type, 
+ * and the row and column of the cell it acts on:
+ * <pre>
+ *   bits  0-7   type (PLACE, UP, DOWN, SKIP_SIDE, or FORWARD)
+ *   bits  8-15  row
+ *   bits 16-23  column
+ * </pre>
+ * See GameBoard.generateMoves and GameBoard.applyMove.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class Move {
+	/** Place the current player's next token in the given first column cell */
+	public static final int PLACE = 0;
+	/** Move the token on top of the given cell up one row (side move) */
+	public static final int UP = 1;
+	/** Move the token on top of the given cell down one row (side move) */
+	public static final int DOWN = 2;
+	/** Do not make a side move this turn */
+	public static final int SKIP_SIDE = 3;
+	/** Move the token on top of the given cell forward one column */
+	public static final int FORWARD = 4;
+	
+	/** A value that is never a valid move */
+	public static final int NONE = -1;
+	
+	/** Method encode: <br />
+	 * @param type - PLACE, UP, DOWN, SKIP_SIDE, or FORWARD
+	 * @param row - row of the cell acted on
+	 * @param col - column of the cell acted on
+	 * @return the encoded move
+	 */
+	public static int encode(int type, int row, int col) {
+		return type | (row << 8) | (col << 16);
+	}
+	
+	/** Method skipSide: <br />
+	 * @return the encoded move for skipping the side move
+	 */
+	public static int skipSide() {
+		return SKIP_SIDE;
+	}
+	
+	/** Method getType: <br />
+	 * @return PLACE, UP, DOWN, SKIP_SIDE, or FORWARD
+	 */
+	public static int getType(int move) {
+		return move & 0xFF;
+	}
+	
+	/** Method getRow: <br />
+	 * @return row of the cell the move acts on
+	 */
+	public static int getRow(int move) {
+		return (move >>> 8) & 0xFF;
+	}
+	
+	/** Method getCol: <br />
+	 * @return column of the cell the move acts on
+	 */
+	public static int getCol(int move) {
+		return (move >>> 16) & 0xFF;
+	}
+	
+	/** Method getEndRow: <br />
+	 * @return the row the token will be stacked in (before any pit effects)
+	 */
+	public static int getEndRow(int move) {
+		int type = getType(move);
+		if (type == UP) return getRow(move) - 1;
+		else if (type == DOWN) return getRow(move) + 1;
+		else return getRow(move);
+	}
+	
+	/** Method getEndCol: <br />
+	 * @return the column the token will be stacked in (before any pit effects)
+	 */
+	public static int getEndCol(int move) {
+		if (getType(move) == FORWARD) return getCol(move) + 1;
+		else return getCol(move);
+	}
+	
+	/** Method toString: <br />
+	 * @return a short description of the move
+	 */
+	public static String toString(int move) {
+		String cell = "(" + getRow(move) + ", " + getCol(move) + ")";
+		switch (getType(move)) {
+		case PLACE: return "Place hedgehog at " + cell;
+		case UP: return "Move hedgehog at " + cell + " up";
+		case DOWN: return "Move hedgehog at " + cell + " down";
+		case SKIP_SIDE: return "Skip side move";
+		case FORWARD: return "Move hedgehog at " + cell + " forward";
+		default: return "Unknown move";
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package application;
+
+/** Class NullGameListener: <br />
+ * A GameListener that ignores every event.  Used for headless
+ * games and simulations where nobody is watching.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class NullGameListener implements GameListener {
+	
+	public void tokensAssigned(int playerID, int tokenCount) {
+		//do nothing
+	}
+	
+	public void turnUpdated(int turnCounter, int currentPlayer, int currentRound, int forwardRow) {
+		//do nothing
+	}
+	
+	public void stageChanged(int stage) {
+		//do nothing
+	}
+	
+	public void moveFailed(String message) {
+		//do nothing
+	}
+	
+	public void playerCannotWin(int playerID, String colorName) {
+		//do nothing
+	}
+}
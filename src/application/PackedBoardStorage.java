@@ -0,0 +1,105 @@
+package application;
+
+/** Class PackedBoardStorage: <br />
+ * Board storage that keeps the whole grid in two int arrays instead of
+ * one object per cell and one node per stacked token.  Each cell is a
+ * single packed int:
+ * <pre>
+ *   bits  0-7   number of tokens stacked in the cell
+ *   bit   8     cell is enabled
+ *   bit   9     cell was generated as a pit
+ *   bits 16-31  ID of the top token (valid when the height is not 0)
+ * </pre>
+ * A second array, indexed by token ID, holds the ID of the token 
+ * beneath each stacked token.  Since a token is never in more than one
+ * cell, this is enough to hold every stack on the board, and pushing
+ * or popping a token never allocates anything.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class PackedBoardStorage implements BoardStorage {
+	private static final int HEIGHT_MASK = 0xFF;
+	private static final int ENABLED_BIT = 1 << 8;
+	private static final int PIT_BIT = 1 << 9;
+	private static final int TOP_SHIFT = 16;
+	
+	private int rows;
+	private int cols;
+	private int[] cells;	//packed cell words, row major
+	private int[] below;	//token ID beneath each token, -1 for the bottom of a stack
+	
+	/** Constructor: <br />
+	 * @param pitGrid - true for every cell that is a pit
+	 * @param tokenCount - total number of tokens on the board (all players)
+	 */
+	public PackedBoardStorage(boolean[][] pitGrid, int tokenCount) {
+		rows = pitGrid.length;
+		cols = pitGrid[0].length;
+		cells = new int[rows * cols];
+		below = new int[tokenCount];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				cells[i * cols + j] = pitGrid[i][j] ? PIT_BIT : ENABLED_BIT;
+			}
+		}
+	}
+	
+	/** Method index: <br />
+	 * @return position of the cell in the packed array
+	 * @throws ArrayIndexOutOfBoundsException if the cell does not exist
+	 */
+	private int index(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) {
+			throw new ArrayIndexOutOfBoundsException("(" + row + ", " + col + ")");
+		}
+		return row * cols + col;
+	}
+	
+	public boolean isEnabled(int row, int col) {
+		return (cells[index(row, col)] & ENABLED_BIT) != 0;
+	}
+	
+	public void setEnabled(int row, int col, boolean enabled) {
+		int i = index(row, col);
+		if (enabled) cells[i] |= ENABLED_BIT;
+		else cells[i] &= ~ENABLED_BIT;
+	}
+	
+	public boolean isPit(int row, int col) {
+		return (cells[index(row, col)] & PIT_BIT) != 0;
+	}
+	
+	public int getHeight(int row, int col) {
+		return cells[index(row, col)] & HEIGHT_MASK;
+	}
+	
+	public void push(int row, int col, int tokenID) {
+		int i = index(row, col);
+		int cell = cells[i];
+		below[tokenID] = (cell & HEIGHT_MASK) == 0 ? -1 : cell >>> TOP_SHIFT;
+		cells[i] = (tokenID << TOP_SHIFT) | (cell & (ENABLED_BIT | PIT_BIT)) | ((cell & HEIGHT_MASK) + 1);
+	}
+	
+	public int pop(int row, int col) {
+		int i = index(row, col);
+		int cell = cells[i];
+		int height = cell & HEIGHT_MASK;
+		if (height == 0) return -1;
+		int top = cell >>> TOP_SHIFT;
+		int next = height == 1 ? 0 : below[top];
+		cells[i] = (next << TOP_SHIFT) | (cell & (ENABLED_BIT | PIT_BIT)) | (height - 1);
+		below[top] = -1;
+		return top;
+	}
+	
+	public int peek(int row, int col, int depth) {
+		int cell = cells[index(row, col)];
+		if (depth >= (cell & HEIGHT_MASK)) return -1;
+		int token = cell >>> TOP_SHIFT;
+		for (int i = 0; i < depth; i++) {
+			token = below[token];
+		}
+		return token;
+	}
+}
@@ -1,19 +1,28 @@
 package application;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /** Class PitGridGenerator: <br />
- * Creates a grid of cells containing enabled cells <true> and 
+ * Creates a grid of cells containing enabled cells <true> and
  * disabled cells <false> using the two-queens rule:
  * that is, no two disabled cells will be in the same row or the same column.
  * Also ensures that a continuous diagonal line of disabled cells is not generated.
+ * <br />
+ * Such a layout is a permutation: row r has its pit in column p[r].
+ * A random permutation is drawn directly (Fisher-Yates shuffle), and
+ * only the two diagonal layouts (the impasses) are drawn again, which
+ * happens for 2 of every size! layouts.
  * @author Joshua Kovach
  * @version 1.0
  *
  */
 public class PitGridGenerator {
+	/** Number of columns of a hedgehog grid before the first pit column */
+	public static final int PIT_OFFSET = 2;
+
 	private static Random random = new Random();
-	
+
 	/** Method newPitGrid: <br />
 	 * Creates a square grid of disabled cells and enabled cells
 	 * where no two disabled cells are in the same row or column,
@@ -23,110 +32,109 @@ public class PitGridGenerator {
 	 * @return a boolean double array of the given size
 	 */
 	public static boolean [][] newPitGrid(int size) {
+		return newPitGrid(size, random);
+	}
+
+	/** Method newPitGrid: <br />
+	 * Creates a pit grid (see newPitGrid(int)) from the given generator
+	 * @param size - number of rows and columns (at least 3)
+	 * @param random - source of the layout
+	 * @return a boolean double array of the given size
+	 */
+	public static boolean [][] newPitGrid(int size, Random random) {
+		int[] pitCols = new int[size];
+		newPitPermutation(pitCols, random);
 		boolean [][] pitGrid = new boolean[size][size];
-		int row;
-		int col;
-		boolean fail;
-		int successCount;
-		int diagonalConnections;
-		
-		boolean impassDown, impassUp;
-		
-		
-		
+		for (int i = 0; i < size; i++) {
+			pitGrid[i][pitCols[i]] = true;
+		}
+		return pitGrid;
+	}
+
+	/** Method newPitPermutation: <br />
+	 * Fills the array with a random pit layout: pitCols[row] is the
+	 * column (of the square pit grid) of the pit in that row.
+	 * Every layout without an impasse is equally likely.
+	 * @param pitCols - one element per row, at least 3 rows
+	 * @param random - source of the layout
+	 * @throws IllegalArgumentException - if there are fewer than 3 rows,
+	 * since every layout of 1 or 2 rows is an impasse
+	 */
+	public static void newPitPermutation(int[] pitCols, Random random) {
+		int size = pitCols.length;
+		if (size < 3) throw new IllegalArgumentException("Every pit layout of " + size + " rows is an impasse");
 		do {
-			impassDown = false;
-			impassUp = false;
-			
-			for (int i = 0; i < size; i++) {
-				for (int j = 0; j < size; j++) {
-					pitGrid[i][j] = false;
-				}
-			}
-			
-			successCount = 0;
-			while (successCount < size) {
-				
-				fail = false;
-				row = random.nextInt(size);
-				col = random.nextInt(size);
-				
-				for (int i = 0; i < size; i++) {
-					if (pitGrid[i][col]) fail = true;
-				}
-				for (int i = 0; i < size; i++) {
-					if (pitGrid[row][i]) fail = true;
-				}
-				if (! fail) {
-					pitGrid[row][col] = true;
-					successCount++;
-				}
-				/*
-				for (int i = 0; i < size; i++) {
-					for (int j = 0; j < size; j++) {
-						System.out.print(pitGrid[i][j] + " ");
-					}
-					System.out.println("");
-				}*/
-			}
-			
-			
-			//CHECK FOR IMPASSES
-			diagonalConnections = 0;
 			for (int i = 0; i < size; i++) {
-				if ( pitGrid[0][0] && pitGrid[i][i] ) {
-					diagonalConnections++;
-				}
-				else diagonalConnections = 0;
+				pitCols[i] = i;
 			}
-			if (diagonalConnections == size) {
-				impassDown = true;
-				System.out.println("Impass generated (\\).  Reconfiguring...");
+			for (int i = size - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = pitCols[i];
+				pitCols[i] = pitCols[j];
+				pitCols[j] = swap;
 			}
-			
-			diagonalConnections = 0;
-			for (int i = 0; i < size; i++) {
-				if ( pitGrid[size - 1][0] && pitGrid[(size - 1) - i][i] ) {
-					diagonalConnections++;
-				}
-				else diagonalConnections = 0;
-			}
-			if (diagonalConnections == size) {
-				impassUp = true;
-				System.out.println("Impass generated(/).  Reconfiguring...");
-			}
-		} while ( impassDown || impassUp);
-		
-		return pitGrid;
+		} while (isImpasse(pitCols));
 	}
-	
+
+	/** Method isImpasse: <br />
+	 * @param pitCols - pit layout, pitCols[row] is the column of the pit in that row
+	 * @return true if the pits form a diagonal line from one corner to the other
+	 * (\ or /), which would wall off part of the board
+	 */
+	public static boolean isImpasse(int[] pitCols) {
+		int size = pitCols.length;
+		boolean down = true;
+		boolean up = true;
+		for (int i = 0; i < size && (down || up); i++) {
+			if (pitCols[i] != i) down = false;
+			if (pitCols[i] != size - 1 - i) up = false;
+		}
+		return down || up;
+	}
+
 	/** Method newHedgeHogGrid: <br />
 	 * Returns a grid for the game Hurry Up HedgeHog
 	 * @param size - int the number of rows on the board
 	 * @return boolean [][] grid of enabled or disabled cells
 	 */
 	public static boolean [][] newHedgeHogGrid(int size) {
-		boolean [][] pitGrid = newPitGrid(size);
-		boolean [][] hedgeHogGrid = new boolean[size][size + 3];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (pitGrid[i][j]) {
-					hedgeHogGrid[i][j + 2] = pitGrid[i][j];
-				}
-			}
-		}
+		return newHedgeHogGrid(size, random);
+	}
 
-		/*
-		System.out.println("Hedge Hog Grid");
-		for (int i = 0; i < hedgeHogGrid.length; i++){
-			for (int j = 0; j < hedgeHogGrid[i].length; j++) {
-				System.out.print(hedgeHogGrid[i][j] + " ");
-			}
-			System.out.println("");
+	/** Method newHedgeHogGrid: <br />
+	 * Returns a grid for the game Hurry Up HedgeHog from the given generator
+	 * @param size - int the number of rows on the board
+	 * @param random - source of the layout
+	 * @return boolean [][] grid of enabled or disabled cells
+	 */
+	public static boolean [][] newHedgeHogGrid(int size, Random random) {
+		return newHedgeHogGrid(new boolean[size][size + 3], random, new int[size]);
+	}
+
+	/** Method newHedgeHogGrid: <br />
+	 * Writes a new layout into an existing grid, so that boards
+	 * can be set up over and over without allocating.
+	 * @param hedgeHogGrid - grid of size rows and size + 3 columns (overwritten)
+	 * @param random - source of the layout
+	 * @param pitCols - one element per row, receives the layout (see newPitPermutation)
+	 * @return the grid passed in
+	 */
+	public static boolean [][] newHedgeHogGrid(boolean[][] hedgeHogGrid, Random random, int[] pitCols) {
+		newPitPermutation(pitCols, random);
+		return fillHedgeHogGrid(hedgeHogGrid, pitCols);
+	}
+
+	/** Method fillHedgeHogGrid: <br />
+	 * Writes a pit layout into an existing grid.
+	 * @param hedgeHogGrid - grid of size rows and size + 3 columns (overwritten)
+	 * @param pitCols - pit layout, pitCols[row] is the column of the pit in that row
+	 * @return the grid passed in
+	 */
+	public static boolean [][] fillHedgeHogGrid(boolean[][] hedgeHogGrid, int[] pitCols) {
+		for (int i = 0; i < pitCols.length; i++) {
+			Arrays.fill(hedgeHogGrid[i], false);
+			hedgeHogGrid[i][pitCols[i] + PIT_OFFSET] = true;
 		}
-		*/
 		return hedgeHogGrid;
 	}
-	
-	
 }
@@ -0,0 +1,303 @@
+package application;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+/** Class PitLayoutCatalog: <br />
+ * Numbers every valid pit layout of a board size, and keeps sets of
+ * layouts in a file so that the same layouts can be used again in later runs.
+ * <br />
+ * A layout (see PitGridGenerator) is a permutation of the rows,
+ * pitCols[row] being the column of the pit in that row.  The layout
+ * index is the position of the permutation in dictionary order,
+ * leaving out the two impasses: the first permutation (0, 1, 2, ...) and
+ * the last one (..., 2, 1, 0).  So a board of a given size has
+ * size! - 2 layouts, numbered from 0, and going from a layout to its
+ * index or back takes size * size steps.
+ * <br />
+ * A catalog holds, for each of a few board sizes, a sorted set of layout
+ * indices: either every layout of the size, or a random sample of them.
+ * Catalogs are written to a file and read back by mapping the file into memory:
+ * <pre>
+ *   int   MAGIC
+ *   int   number of sizes
+ *   per size:  int size, int layout count, long file offset of its indices
+ *   per size:  long layout index, for each layout in order
+ * </pre>
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class PitLayoutCatalog {
+	/** Largest board size whose layouts can be numbered with a long */
+	public static final int MAX_SIZE = 20;
+
+	private static final int MAGIC = 0x48485043;	//"HHPC"
+	private static final int HEADER = 8;			//magic and size count
+	private static final int ENTRY = 16;			//size, count, offset
+
+	private int[] sizes;				//board sizes in the catalog
+	private int[] counts;				//number of layouts of each size
+	private long[] offsets;				//where each size's indices start in the buffer
+	private ByteBuffer buffer;			//the catalog in the file format (possibly mapped)
+
+	/** Constructor: <br />
+	 * Wraps a buffer holding a catalog in the file format.
+	 */
+	private PitLayoutCatalog(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.getInt(0) != MAGIC) throw new IOException("Not a pit layout catalog");
+		int sizeCount = buffer.getInt(4);
+		sizes = new int[sizeCount];
+		counts = new int[sizeCount];
+		offsets = new long[sizeCount];
+		for (int i = 0; i < sizeCount; i++) {
+			sizes[i] = buffer.getInt(HEADER + i * ENTRY);
+			counts[i] = buffer.getInt(HEADER + i * ENTRY + 4);
+			offsets[i] = buffer.getLong(HEADER + i * ENTRY + 8);
+		}
+	}
+
+	/** Method getLayoutCount: <br />
+	 * @param size - number of rows on the board (3 to MAX_SIZE)
+	 * @return number of valid layouts, size! - 2
+	 */
+	public static long getLayoutCount(int size) {
+		checkSize(size);
+		return factorial(size) - 2;
+	}
+
+	/** Method getLayout: <br />
+	 * Writes the layout with the given index.
+	 * @param index - from 0 to getLayoutCount(pitCols.length) - 1
+	 * @param pitCols - one element per row, receives the layout
+	 * @return pitCols
+	 */
+	public static int[] getLayout(long index, int[] pitCols) {
+		int size = pitCols.length;
+		if (index < 0 || index >= getLayoutCount(size)) {
+			throw new IllegalArgumentException("No layout " + index + " for size " + size);
+		}
+		//skip the identity, then unrank in the factorial number system (Lehmer code)
+		long rank = index + 1;
+		int used = 0;			//bit set of columns already taken
+		for (int i = 0; i < size; i++) {
+			long place = factorial(size - 1 - i);
+			int digit = (int) (rank / place);
+			rank %= place;
+			int col = 0;
+			while (true) {
+				if ((used & (1 << col)) == 0) {
+					if (digit == 0) break;
+					digit--;
+				}
+				col++;
+			}
+			used |= 1 << col;
+			pitCols[i] = col;
+		}
+		return pitCols;
+	}
+
+	/** Method getLayoutIndex: <br />
+	 * @param pitCols - a layout (pitCols[row] is the column of the pit in that row)
+	 * @return its layout index
+	 * @throws IllegalArgumentException - if the layout is not a permutation or is an impasse
+	 */
+	public static long getLayoutIndex(int[] pitCols) {
+		int size = pitCols.length;
+		checkSize(size);
+		if (PitGridGenerator.isImpasse(pitCols)) throw new IllegalArgumentException("Layout is an impasse");
+		long rank = 0;
+		int used = 0;
+		for (int i = 0; i < size; i++) {
+			int col = pitCols[i];
+			if (col < 0 || col >= size || (used & (1 << col)) != 0) {
+				throw new IllegalArgumentException("Layout is not a permutation");
+			}
+			int smaller = Integer.bitCount(~used & ((1 << col) - 1));
+			rank += smaller * factorial(size - 1 - i);
+			used |= 1 << col;
+		}
+		return rank - 1;
+	}
+
+	/** Method getLayoutIndex: <br />
+	 * @param hedgeHogGrid - a grid from PitGridGenerator.newHedgeHogGrid
+	 * @return the layout index of its pits
+	 */
+	public static long getLayoutIndex(boolean[][] hedgeHogGrid) {
+		int[] pitCols = new int[hedgeHogGrid.length];
+		for (int i = 0; i < pitCols.length; i++) {
+			pitCols[i] = -1;
+			for (int j = 0; j < pitCols.length; j++) {
+				if (hedgeHogGrid[i][j + PitGridGenerator.PIT_OFFSET]) pitCols[i] = j;
+			}
+		}
+		return getLayoutIndex(pitCols);
+	}
+
+	/** Method newHedgeHogGrid: <br />
+	 * @param size - number of rows on the board
+	 * @param index - layout index
+	 * @return a grid for the game Hurry Up HedgeHog with the given layout
+	 */
+	public static boolean[][] newHedgeHogGrid(int size, long index) {
+		int[] pitCols = getLayout(index, new int[size]);
+		return PitGridGenerator.fillHedgeHogGrid(new boolean[size][size + 3], pitCols);
+	}
+
+	/** Method build: <br />
+	 * Makes a catalog of layouts for the given sizes.  Sizes with
+	 * no more than perSize layouts get all of them; the others get
+	 * perSize different layouts chosen at random.
+	 * @param sizes - board sizes
+	 * @param perSize - most layouts to keep for each size
+	 * @param random - chooses the sampled layouts
+	 * @return the catalog (in memory)
+	 */
+	public static PitLayoutCatalog build(int[] sizes, int perSize, Random random) {
+		long[][] indices = new long[sizes.length][];
+		int total = 0;
+		for (int s = 0; s < sizes.length; s++) {
+			long layoutCount = getLayoutCount(sizes[s]);
+			if (layoutCount <= perSize) {
+				indices[s] = new long[(int) layoutCount];
+				for (int i = 0; i < layoutCount; i++) {
+					indices[s][i] = i;
+				}
+			}
+			else {
+				//sample permutations and keep the ones not seen yet
+				HashSet<Long> seen = new HashSet<Long>();
+				int[] pitCols = new int[sizes[s]];
+				indices[s] = new long[perSize];
+				int count = 0;
+				while (count < perSize) {
+					PitGridGenerator.newPitPermutation(pitCols, random);
+					long index = getLayoutIndex(pitCols);
+					if (seen.add(index)) indices[s][count++] = index;
+				}
+				Arrays.sort(indices[s]);
+			}
+			total += indices[s].length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER + sizes.length * ENTRY + total * 8);
+		buffer.putInt(MAGIC);
+		buffer.putInt(sizes.length);
+		long offset = HEADER + sizes.length * ENTRY;
+		for (int s = 0; s < sizes.length; s++) {
+			buffer.putInt(sizes[s]);
+			buffer.putInt(indices[s].length);
+			buffer.putLong(offset);
+			offset += indices[s].length * 8L;
+		}
+		for (int s = 0; s < sizes.length; s++) {
+			for (int i = 0; i < indices[s].length; i++) {
+				buffer.putLong(indices[s][i]);
+			}
+		}
+		buffer.flip();
+		try {
+			return new PitLayoutCatalog(buffer);
+		}
+		catch (IOException ioe) {
+			throw new IllegalStateException(ioe.getMessage());
+		}
+	}
+
+	/** Method open: <br />
+	 * Maps a catalog file into memory.  Layouts are read from the file
+	 * as they are asked for, so opening a large catalog is immediate.
+	 * @param file - a file written by write()
+	 * @return the catalog
+	 * @throws IOException - if the file can't be read or is not a catalog
+	 */
+	public static PitLayoutCatalog open(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			MappedByteBuffer map = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+			return new PitLayoutCatalog(map);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/** Method write: <br />
+	 * Saves the catalog to a file (replacing the file)
+	 * @param file - where to save the catalog
+	 * @throws IOException - if the file can't be written
+	 */
+	public void write(File file) throws IOException {
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.setLength(0);
+			ByteBuffer data = buffer.duplicate();
+			data.position(0);
+			data.limit(buffer.capacity());
+			out.getChannel().write(data);
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/** Method getSizes: <br />
+	 * @return the board sizes in the catalog
+	 */
+	public int[] getSizes() {
+		return sizes.clone();
+	}
+
+	/** Method getCount: <br />
+	 * @param size - number of rows on the board
+	 * @return number of layouts the catalog holds for the size (0 if none)
+	 */
+	public int getCount(int size) {
+		int s = find(size);
+		return s < 0 ? 0 : counts[s];
+	}
+
+	/** Method getLayoutIndex: <br />
+	 * @param size - number of rows on the board
+	 * @param i - from 0 to getCount(size) - 1
+	 * @return the layout index of the catalog's i'th layout of the size
+	 */
+	public long getLayoutIndex(int size, int i) {
+		int s = find(size);
+		if (s < 0 || i < 0 || i >= counts[s]) {
+			throw new IndexOutOfBoundsException("No layout " + i + " of size " + size + " in the catalog");
+		}
+		return buffer.getLong((int) (offsets[s] + i * 8L));
+	}
+
+	private int find(int size) {
+		for (int s = 0; s < sizes.length; s++) {
+			if (sizes[s] == size) return s;
+		}
+		return -1;
+	}
+
+	private static void checkSize(int size) {
+		if (size < 3 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("Board size must be from 3 to " + MAX_SIZE);
+		}
+	}
+
+	private static long factorial(int n) {
+		long f = 1;
+		for (int i = 2; i <= n; i++) {
+			f *= i;
+		}
+		return f;
+	}
+}
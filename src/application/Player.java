@@ -14,11 +14,11 @@ import viewer.ImageLoader;
  */
 public class Player {
 	private int playerID;
-	private Color[] colorOptions = { Color.red, Color.green, Color.blue, Color.orange, Color.magenta, Color.yellow };
-	private String[] colorNames = { "Red", "Green", "Blue", "Orange", "Magenta", "Yellow" };
+	private static final Color[] colorOptions = { Color.red, Color.green, Color.blue, Color.orange, Color.magenta, Color.yellow };
+	private static final String[] colorNames = { "Red", "Green", "Blue", "Orange", "Magenta", "Yellow" };
 	private Color playerColor;
-	private String[] playerImageName = {"pI1.png", "pI2.png", "pI3.png", "pI4.png", "pI5.png", "pI6.png", "pI.png" };
-	private ImageIcon playerImage;
+	private static final String[] playerImageName = {"pI1.png", "pI2.png", "pI3.png", "pI4.png", "pI5.png", "pI6.png", "pI.png" };
+	private ImageIcon playerImage;	//loaded the first time it is asked for, so headless games never touch it
 	
 	public Player(int newID) {
 		setPlayerID(newID);
@@ -64,13 +64,17 @@ public class Player {
 	 */
 	public void setPlayerColor(int playerID) {
 		playerColor = colorOptions[playerID];
-		playerImage = ImageLoader.loadIcon(playerImageName[playerID]);
+		playerImage = null;
 	}
 	
 	/** Method getPlayerImage: <br />
+	 * Loads the icon the first time it is needed.
 	 * @return ImageIcon icon representing the player
 	 */
 	public ImageIcon getPlayerImage() {
+		if (playerImage == null) {
+			playerImage = ImageLoader.loadIcon(playerImageName[playerID]);
+		}
 		return playerImage;
 	}
 	
@@ -16,6 +16,8 @@ public class PlayerToken extends Player {
 	private boolean finished;
 	private boolean enabled;
 	private boolean winnable;
+	private int tokenID;			//unique number of the token on its board, -1 if not tracked
+	private PlayerTracker tracker;	//told when the token finishes or becomes unwinnable
 	
 	/** Constructor: <br />
 	 * Creates an unplaced player token belonging to the given player.
@@ -26,6 +28,7 @@ public class PlayerToken extends Player {
 		locationRow = -1;
 		locationCol = -1;
 		winnable = true;
+		tokenID = -1;
 	}
 	
 	/** Constructor: <br />
@@ -39,6 +42,7 @@ public class PlayerToken extends Player {
 		locationRow = newX;
 		locationCol = newY;
 		winnable = true;
+		tokenID = -1;
 	}
 	
 	/** Constructor: <br />
@@ -49,8 +53,31 @@ public class PlayerToken extends Player {
 		super(newPlayerToken.getPlayerID());
 		locationRow = newPlayerToken.getLocationRow();
 		locationCol = newPlayerToken.getLocationCol();
+		finished = newPlayerToken.isFinished();
+		enabled = newPlayerToken.isEnabled();
+		winnable = newPlayerToken.isWinnable();
+		tokenID = newPlayerToken.getTokenID();
 	}	
 	
+	/** Method getTokenID: <br />
+	 * @return the unique number of this token among all tokens on the board,
+	 * or -1 if the token does not belong to a PlayerTracker
+	 */
+	public int getTokenID() {
+		return tokenID;
+	}
+	
+	/** Method setTracker: <br />
+	 * Called by the PlayerTracker that owns the token, so that it can
+	 * keep count of finished and winnable tokens as they change.
+	 * @param tracker - the owner of the token
+	 * @param tokenID - unique token number
+	 */
+	void setTracker(PlayerTracker tracker, int tokenID) {
+		this.tracker = tracker;
+		this.tokenID = tokenID;
+	}
+	
 	/** Method setLocation: <br />
 	 * Sets the location of the token on the grid.
 	 * @param x row
@@ -102,9 +129,18 @@ public class PlayerToken extends Player {
 	 * used to indicate that the token can no longer be used.
 	 */
 	public void setUnwinnable() {
+		if (winnable && tracker != null) tracker.tokenBecameUnwinnable(getPlayerID());
 		winnable = false;
 	}
 	
+	/** Method setWinnable: <br />
+	 * Reverses setUnwinnable, for undoing a move on the board.
+	 */
+	void setWinnable() {
+		if (!winnable && tracker != null) tracker.tokenBecameWinnable(getPlayerID());
+		winnable = true;
+	}
+	
 	/** Method isWinnable: <br />
 	 * @return true if the token is able to continue moving
 	 * 			false if it is disabled for the remainder of the game
@@ -124,10 +160,19 @@ public class PlayerToken extends Player {
 	 * sets the token to finished (it has reached the end of the board.
 	 */
 	public void setFinished() {
+		if (!finished && tracker != null) tracker.tokenFinished(getPlayerID());
 		finished = true;
 		enabled = false;
 	}
 	
+	/** Method clearFinished(): <br />
+	 * Reverses setFinished (apart from the enabled flag), for undoing a move on the board.
+	 */
+	void clearFinished() {
+		if (finished && tracker != null) tracker.tokenUnfinished(getPlayerID());
+		finished = false;
+	}
+	
 	/** Method isFinished: <br />
 	 * @return true if the token is finished, false if still in play
 	 */
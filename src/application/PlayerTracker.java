@@ -1,23 +1,27 @@
 package application;
 
 import java.awt.Color;
-import java.util.ArrayList;
 
 /** Class PlayerTracker: <br />
  * Contains an array of PlayerTokens for the specified number of players
  * with the specified number of tokens.  Provides methods for checking for
  * a winner, the number of players, number of tokens, and getting player 
- * identifiers.
+ * identifiers.  Finished and winnable tokens are counted as the tokens 
+ * change, so checking for a winner never has to look at the tokens.
  * @author Joshua Kovach
  * @version 1.0
  *
  */
 public class PlayerTracker {
 	private PlayerToken [][] playerArray;	//holds the tokens belonging to each player
+	private PlayerToken [] tokensByID;		//the same tokens, indexed by token ID
 	private int playerCount;				//number of players
 	private int tokenCount;					//number of tokens
 	private int winCount;					//number of tokens finished to win
 	private int winner;						//playerID of the winner
+	private int[] finishedCount;			//finished tokens of each player
+	private int[] winnableCount;			//winnable tokens of each player
+	private int canWinCount;				//players with at least winCount winnable tokens
 	
 	/** Indicates that there is no winner to the game */
 	final public int NO_WINNER = -1;
@@ -36,12 +40,69 @@ public class PlayerTracker {
 		this.winner = NO_WINNER;
 		
 		this.playerArray = new PlayerToken[playerCount][tokenCount];
+		this.tokensByID = new PlayerToken[playerCount * tokenCount];
 		
 		for (int i = 0; i < playerCount; i++) {
 			for (int j = 0; j < tokenCount; j++) {
 				playerArray[i][j] = new PlayerToken(i);
+				playerArray[i][j].setTracker(this, i * tokenCount + j);
+				tokensByID[i * tokenCount + j] = playerArray[i][j];
 			}
 		}
+		
+		finishedCount = new int[playerCount];
+		winnableCount = new int[playerCount];
+		for (int i = 0; i < playerCount; i++) {
+			winnableCount[i] = tokenCount;
+		}
+		canWinCount = (tokenCount < winCount) ? 0 : playerCount;
+	}
+	
+	/** Method tokenFinished: <br />
+	 * Called by a token of this tracker the first time it is finished.
+	 * @param playerID - owner of the token
+	 */
+	void tokenFinished(int playerID) {
+		finishedCount[playerID]++;
+	}
+	
+	/** Method tokenBecameUnwinnable: <br />
+	 * Called by a token of this tracker when it can no longer win.
+	 * @param playerID - owner of the token
+	 */
+	void tokenBecameUnwinnable(int playerID) {
+		if (winnableCount[playerID]-- == winCount) canWinCount--;
+	}
+	
+	/** Method tokenUnfinished: <br />
+	 * Called by a token of this tracker when its finish is undone.
+	 * @param playerID - owner of the token
+	 */
+	void tokenUnfinished(int playerID) {
+		finishedCount[playerID]--;
+	}
+	
+	/** Method tokenBecameWinnable: <br />
+	 * Called by a token of this tracker when its loss is undone.
+	 * @param playerID - owner of the token
+	 */
+	void tokenBecameWinnable(int playerID) {
+		if (++winnableCount[playerID] == winCount) canWinCount++;
+	}
+	
+	/** Method getToken: <br />
+	 * @param tokenID - unique token number (playerID * tokenCount + token index)
+	 * @return the token with the given ID
+	 */
+	public PlayerToken getToken(int tokenID) {
+		return tokensByID[tokenID];
+	}
+	
+	/** Method getTotalTokenCount: <br />
+	 * @return number of tokens belonging to all players
+	 */
+	public int getTotalTokenCount() {
+		return tokensByID.length;
 	}
 	
 	/** Method getTokensForPlayer: <br />
@@ -53,58 +114,79 @@ public class PlayerTracker {
 		return playerArray[playerID];
 	}
 	
-	/** Method getTokensThatCanWin: <br />
-	 * Returns the tokens belonging to the player that are
+	/** Method getFinishedCount: <br />
+	 * @param playerID
+	 * @return number of the player's tokens that have finished
+	 */
+	public int getFinishedCount(int playerID) {
+		return finishedCount[playerID];
+	}
+	
+	/** Method getWinnableCount: <br />
+	 * Returns the number of tokens belonging to the player that are
 	 * still able to win.  For use in "Black Holes" variations
 	 * of the game.
 	 * @param playerID
-	 * @return array of the tokens that can still win.
-	 */
-	private PlayerToken[] getTokensThatCanWin(int playerID) {
-		PlayerToken[] winnableTokens;
-		ArrayList<PlayerToken> wTokens = new ArrayList<PlayerToken>();
-		for (int i = 0; i < tokenCount; i++) {
-			if (playerArray[playerID][i].isWinnable()) {
-				wTokens.add(playerArray[playerID][i]);
-			}
+	 * @return number of the player's tokens that can still win
+	 */
+	public int getWinnableCount(int playerID) {
+		return winnableCount[playerID];
+	}
+	
+	/** Method canWin: <br />
+	 * @param playerID
+	 * @return true if the player still has enough winnable tokens to win
+	 */
+	public boolean canWin(int playerID) {
+		return winnableCount[playerID] >= winCount;
+	}
+	
+	/** Method getPlayersThatCanWin: <br />
+	 * Fills the given array with the playerIDs of players that can 
+	 * still win, without allocating anything.
+	 * @param players - array of at least getPlayerCount() elements
+	 * @return number of playerIDs written to the array
+	 */
+	public int getPlayersThatCanWin(int[] players) {
+		int count = 0;
+		for (int i = 0; i < playerCount; i++) {
+			if (canWin(i)) players[count++] = i;
 		}
-		winnableTokens = new PlayerToken[wTokens.size()];
-		wTokens.toArray(winnableTokens);
-		return winnableTokens;
+		return count;
+	}
+	
+	/** Method getPlayersThatCannotWin: <br />
+	 * Fills the given array with the playerIDs of players that are
+	 * unable to win the game, without allocating anything.
+	 * @param players - array of at least getPlayerCount() elements
+	 * @return number of playerIDs written to the array
+	 */
+	public int getPlayersThatCannotWin(int[] players) {
+		int count = 0;
+		for (int i = 0; i < playerCount; i++) {
+			if (!canWin(i)) players[count++] = i;
+		}
+		return count;
 	}
 	
 	/** Method getPlayersThatCanWin: <br />
 	 * Returns an array of playerIDs of players that can still win.
 	 * @return array of PlayerIDs
 	 */
-	public Integer[] getPlayersThatCanWin() {
-		Integer [] playersThatCanWin;
-		ArrayList<Integer> pWinnable = new ArrayList<Integer>();
-		for (int i = 0; i < playerCount; i++) {
-			if ( ! (getTokensThatCanWin(i).length < winCount) ) {
-				pWinnable.add(i);
-			}
-		}
-		playersThatCanWin = new Integer[pWinnable.size()];
-		pWinnable.toArray(playersThatCanWin);
-		return playersThatCanWin;
+	public int[] getPlayersThatCanWin() {
+		int[] players = new int[canWinCount];
+		getPlayersThatCanWin(players);
+		return players;
 	}
 	
 	/** Method getPlayersThatCannotWin: <br />
 	 * 
 	 * @return array of players that are unable to win the game
 	 */
-	public Integer[] getPlayersThatCannotWin() {
-		Integer [] playersThatCannotWin;
-		ArrayList<Integer> pUnwinnable = new ArrayList<Integer>();
-		for (int i = 0; i < playerCount; i++) {
-			if (getTokensThatCanWin(i).length < winCount) {
-				pUnwinnable.add(i);
-			}
-		}
-		playersThatCannotWin = new Integer[pUnwinnable.size()];
-		pUnwinnable.toArray(playersThatCannotWin);
-		return playersThatCannotWin;
+	public int[] getPlayersThatCannotWin() {
+		int[] players = new int[playerCount - canWinCount];
+		getPlayersThatCannotWin(players);
+		return players;
 	}
 	
 	/** Method getNumberOfPlayers(): <br />
@@ -150,18 +232,15 @@ public class PlayerTracker {
 	 * @return true if a winner is present, false otherwise
 	 */
 	public boolean hasWinner() {
-		int[] finishedTokens = new int [playerCount];
-		if (getPlayersThatCanWin().length == 1) {
-			winner = getPlayersThatCanWin()[0];
+		if (canWinCount == 1) {
+			for (int i = 0; i < playerCount; i++) {
+				if (canWin(i)) winner = i;
+			}
 			return true;
 		}
 		else {
 			for (int i = 0; i < playerCount; i++) {
-				for (int j = 0; j < tokenCount; j++) {
-					if (playerArray[i][j].isFinished())
-						finishedTokens[i]++;
-				}
-				if (finishedTokens[i] >= winCount) {
+				if (finishedCount[i] >= winCount) {
 					winner = i;
 					return true;
 				}
@@ -0,0 +1,82 @@
+package application;
+
+/** Class RowTokenIndex: <br />
+ * Keeps track of which enabled tokens are in each row of the board,
+ * so the board can answer "which tokens can move forward in row r?"
+ * without scanning every token of every player.  Tokens are stored 
+ * by token ID.  Adding, removing, and moving a token between rows are 
+ * all constant time, and nothing is allocated after construction.
+ * Tokens within a row are kept in no particular order.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class RowTokenIndex {
+	private int[][] rowTokens;		//token IDs in each row
+	private int[] rowCount;			//number of tokens in each row
+	private int[] tokenRow;			//row each token is indexed in, -1 if not indexed
+	private int[] tokenSlot;		//position of each token in its row
+	
+	/** Constructor: <br />
+	 * @param rows - number of rows on the board
+	 * @param tokenCount - total number of tokens on the board
+	 */
+	public RowTokenIndex(int rows, int tokenCount) {
+		rowTokens = new int[rows][tokenCount];
+		rowCount = new int[rows];
+		tokenRow = new int[tokenCount];
+		tokenSlot = new int[tokenCount];
+		for (int i = 0; i < tokenCount; i++) {
+			tokenRow[i] = -1;
+		}
+	}
+	
+	/** Method update: <br />
+	 * Brings the index up to date with a token's current row and status.
+	 * @param tokenID - the token that changed
+	 * @param row - the row the token is in (-1 if not on the board)
+	 * @param enabled - true if the token can currently move
+	 */
+	public void update(int tokenID, int row, boolean enabled) {
+		int newRow = (enabled && row >= 0 && row < rowCount.length) ? row : -1;
+		int oldRow = tokenRow[tokenID];
+		if (newRow == oldRow) return;
+		if (oldRow >= 0) {
+			//move the last token of the row into the hole
+			int slot = tokenSlot[tokenID];
+			int last = rowTokens[oldRow][--rowCount[oldRow]];
+			rowTokens[oldRow][slot] = last;
+			tokenSlot[last] = slot;
+		}
+		if (newRow >= 0) {
+			tokenSlot[tokenID] = rowCount[newRow];
+			rowTokens[newRow][rowCount[newRow]++] = tokenID;
+		}
+		tokenRow[tokenID] = newRow;
+	}
+	
+	/** Method getCount: <br />
+	 * @param row - row of the board
+	 * @return number of enabled tokens in the row
+	 */
+	public int getCount(int row) {
+		return rowCount[row];
+	}
+	
+	/** Method isEmpty: <br />
+	 * @param row - row of the board
+	 * @return true if no enabled token is in the row
+	 */
+	public boolean isEmpty(int row) {
+		return rowCount[row] == 0;
+	}
+	
+	/** Method getTokenID: <br />
+	 * @param row - row of the board
+	 * @param i - position in the row, from 0 to getCount(row) - 1
+	 * @return ID of the token at that position
+	 */
+	public int getTokenID(int row, int i) {
+		return rowTokens[row][i];
+	}
+}
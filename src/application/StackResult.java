@@ -0,0 +1,17 @@
+package application;
+
+/** Enum StackResult: <br />
+ * The outcome of GameBoard.tryStack.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public enum StackResult {
+	/** The token was stacked (or sent on by the pit it landed in) */
+	STACKED,
+	/** The cell is not on the board; nothing changed */
+	OUT_OF_BOUNDS,
+	/** During placement, the stack is higher than the lowest stack it 
+	 * may go on; nothing changed */
+	TOO_HIGH
+}
@@ -0,0 +1,169 @@
+package application;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Class ZobristKeys: <br />
+ * Random 64-bit keys for hashing a game board (Zobrist hashing).
+ * A board's hash is the exclusive or of the keys for everything that
+ * is true of it: each token at each depth of each cell, each token that
+ * is enabled, finished or unwinnable, each closed cell, the current
+ * player, forward row and stage, and the side and forward move flags.
+ * Since a change to the board only flips a few keys, the board keeps
+ * its hash up to date in constant time per change.
+ * <br />
+ * Keys are made from a fixed seed, so boards of the same size
+ * (and the same number of players and tokens) always agree on the
+ * hash of a position, and hashes can be shared between boards and threads.
+ * Since they never change, boards get them from forBoard, which makes
+ * the keys for each size once.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class ZobristKeys {
+	private static final long SEED = 0x5DEECE66DL;
+
+	private static final Map<String, ZobristKeys> cache = new HashMap<String, ZobristKeys>();
+
+	private int cells;					//rows * cols
+	private int tokenCount;				//total tokens of all players
+	private long[] cellKeys;			//token in a cell, [tokenID * cells + cell]
+	private long[] depthKeys;			//token at a depth of its stack, [tokenID * tokenCount + depth]
+	private long[] enabledKeys;			//token is enabled
+	private long[] finishedKeys;		//token is finished
+	private long[] unwinnableKeys;		//token can no longer win
+	private long[] closedKeys;			//cell is not enabled
+	private long[] playerKeys;			//current player
+	private long[] rowKeys;				//forward row
+	private long[] stageKeys;			//placement, play, or game over
+	private long sideMovedKey;
+	private long forwardMovedKey;
+
+	/** Method forBoard: <br />
+	 * Finds the keys for a board of the given size, making them the first
+	 * time they are asked for.  Safe to call from several threads.
+	 * @param rows - rows on the board
+	 * @param cols - columns on the board
+	 * @param playerCount - number of players
+	 * @param tokenCount - total tokens of all players
+	 * @return the keys, shared by every board of the size
+	 */
+	public static ZobristKeys forBoard(int rows, int cols, int playerCount, int tokenCount) {
+		String name = rows + "/" + cols + "/" + playerCount + "/" + tokenCount;
+		ZobristKeys keys;
+		synchronized (cache) {
+			keys = cache.get(name);
+		}
+		if (keys != null) return keys;
+		//made outside the lock, so other sizes don't wait for it
+		ZobristKeys made = new ZobristKeys(rows, cols, playerCount, tokenCount);
+		synchronized (cache) {
+			keys = cache.get(name);
+			if (keys == null) {
+				keys = made;
+				cache.put(name, keys);
+			}
+			return keys;
+		}
+	}
+
+	/** Constructor: <br />
+	 * @param rows - rows on the board
+	 * @param cols - columns on the board
+	 * @param playerCount - number of players
+	 * @param tokenCount - total tokens of all players
+	 */
+	public ZobristKeys(int rows, int cols, int playerCount, int tokenCount) {
+		Random random = new Random(SEED);
+		cells = rows * cols;
+		this.tokenCount = tokenCount;
+		cellKeys = newKeys(random, tokenCount * cells);
+		depthKeys = newKeys(random, tokenCount * tokenCount);
+		enabledKeys = newKeys(random, tokenCount);
+		finishedKeys = newKeys(random, tokenCount);
+		unwinnableKeys = newKeys(random, tokenCount);
+		closedKeys = newKeys(random, cells);
+		playerKeys = newKeys(random, playerCount);
+		rowKeys = newKeys(random, rows);
+		stageKeys = newKeys(random, 3);
+		sideMovedKey = random.nextLong();
+		forwardMovedKey = random.nextLong();
+	}
+
+	private static long[] newKeys(Random random, int count) {
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = random.nextLong();
+		}
+		return keys;
+	}
+
+	/** Method stacked: <br />
+	 * @param tokenID - the token
+	 * @param cell - row * cols + col
+	 * @param depth - position in the stack, 0 for the bottom
+	 * @return key for the token being at that place
+	 */
+	public long stacked(int tokenID, int cell, int depth) {
+		return cellKeys[tokenID * cells + cell] ^ depthKeys[tokenID * tokenCount + depth];
+	}
+
+	/** Method enabled: <br />
+	 * @return key for the token being enabled
+	 */
+	public long enabled(int tokenID) {
+		return enabledKeys[tokenID];
+	}
+
+	/** Method finished: <br />
+	 * @return key for the token being finished
+	 */
+	public long finished(int tokenID) {
+		return finishedKeys[tokenID];
+	}
+
+	/** Method unwinnable: <br />
+	 * @return key for the token being unable to win
+	 */
+	public long unwinnable(int tokenID) {
+		return unwinnableKeys[tokenID];
+	}
+
+	/** Method closed: <br />
+	 * @param cell - row * cols + col
+	 * @return key for the cell not being enabled
+	 */
+	public long closed(int cell) {
+		return closedKeys[cell];
+	}
+
+	/** Method player: <br />
+	 * @return key for the player whose turn it is
+	 */
+	public long player(int playerID) {
+		return playerKeys[playerID];
+	}
+
+	/** Method forwardRow: <br />
+	 * @return key for the row rolled on the die
+	 */
+	public long forwardRow(int row) {
+		return rowKeys[row];
+	}
+
+	/** Method stage: <br />
+	 * @return key for the game stage
+	 */
+	public long stage(int stage) {
+		return stageKeys[stage];
+	}
+
+	/** Method moved: <br />
+	 * @return key for the side and forward move flags
+	 */
+	public long moved(boolean sideMoved, boolean forwardMoved) {
+		return (sideMoved ? sideMovedKey : 0) ^ (forwardMoved ? forwardMovedKey : 0);
+	}
+}
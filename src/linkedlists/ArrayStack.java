@@ -0,0 +1,113 @@
+package linkedlists;
+
+/** Class ArrayStack<T>: <br />
+ * A generic stack with a fixed capacity, backed by an array instead of
+ * linked nodes, so pushing and popping never allocate.  Provides the same
+ * push, pop, and peek methods as StackLinkedList, plus non-throwing
+ * versions (peekOrNull, tryPop) for callers that expect empty stacks,
+ * and constant time access to an item at any depth.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ * @param <T>
+ */
+public class ArrayStack<T> {
+	private Object[] items;		//items[0] is the bottom of the stack
+	private int numberOfItems;
+	
+	/** Constructor: <br />
+	 * @param capacity - the most items the stack will ever hold
+	 */
+	public ArrayStack(int capacity) {
+		items = new Object[capacity];
+		numberOfItems = 0;
+	}
+	
+	/** Method getNumberOfItems: <br />
+	 * @return numberOfItems
+	 */
+	public int getNumberOfItems() {
+		return numberOfItems;
+	}
+	
+	/** Method getCapacity: <br />
+	 * @return the most items the stack can hold
+	 */
+	public int getCapacity() {
+		return items.length;
+	}
+	
+	/** Method isEmpty: <br />
+	 * @return true if no items in the stack; false otherwise
+	 */
+	public boolean isEmpty() {
+		return (numberOfItems == 0);
+	}
+	
+	/** Method push: <br />
+	 * @param item to insert
+	 * @throws IllegalStateException if the stack is already full
+	 */
+	public void push(T item) {
+		if (numberOfItems == items.length)
+			throw new IllegalStateException("full stack: cannot push");
+		items[numberOfItems++] = item;
+	}
+	
+	/** Method pop: <br />
+	 * @return the item deleted
+	 */
+	public T pop() throws DataStructureException {
+		if (isEmpty())
+			throw new DataStructureException("empty stack: cannot be popped");
+		else return tryPop();
+	}
+	
+	/** Method tryPop: <br />
+	 * @return the item deleted, or null if the stack is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T tryPop() {
+		if (isEmpty()) return null;
+		T deleted = (T) items[--numberOfItems];
+		items[numberOfItems] = null;
+		return deleted;
+	}
+	
+	/** Method peek: <br />
+	 * @return the item T retrieved
+	 */
+	public T peek() throws DataStructureException {
+		if (isEmpty())
+			throw new DataStructureException("empty stack: cannot peek");
+		else return peekAt(0);
+	}
+	
+	/** Method peekOrNull: <br />
+	 * @return the item on top of the stack, or null if the stack is empty
+	 */
+	public T peekOrNull() {
+		return peekAt(0);
+	}
+	
+	/** Method peekAt: <br />
+	 * @param depth - 0 for the top item, 1 for the item beneath it, etc.
+	 * @return the item at that depth, or null if the stack is not that deep
+	 */
+	@SuppressWarnings("unchecked")
+	public T peekAt(int depth) {
+		if (depth < 0 || depth >= numberOfItems) return null;
+		return (T) items[numberOfItems - 1 - depth];
+	}
+	
+	/** Method toString(): <br />
+	 * @return the contents of the stack, top first
+	 */
+	public String toString() {
+		StringBuilder listString = new StringBuilder();
+		for (int i = numberOfItems - 1; i >= 0; i--) {
+			listString.append(items[i].toString()).append('\n');
+		}
+		return listString.toString();
+	}
+}
@@ -32,13 +32,13 @@ public abstract class ShellLinkedList<T> {
 	 * @return the contents of the list
 	 */
 	public String toString() {
-		String listString = "";
+		StringBuilder listString = new StringBuilder();
 		Node<T> current = head;
 		for (int i = 0; i < numberOfItems; i++) {
-			listString += current.getData().toString() + "\n";
+			listString.append(current.getData()).append('\n');
 			current = current.getNext();
 		}
-		return listString;
+		return listString.toString();
 	}
 	
 }
@@ -0,0 +1,212 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ai.Bot;
+import ai.BotFactory;
+import application.GameBoard;
+import application.GameRandom;
+import application.NullGameListener;
+import application.PitLayoutCatalog;
+import application.PlayerTracker;
+
+/** Class BatchRunner: <br />
+ * Plays many complete games headless on a pool of threads and totals
+ * the results (see BatchStats).  Each worker thread has its own boards,
+ * bots, and totals; the totals are merged when the workers finish.
+ * <br />
+ * Game number g always gets the same pit layout, dice, and bot choices
+ * for a given seed, however many threads are used, so a batch can be
+ * repeated exactly.  A batch can also play every game on one layout
+ * (see PitLayoutCatalog), to compare results for that layout across runs.
+ * Usage: BatchRunner [games] [rows] [players] [tokens] [winCount] [pitMode] [threads] [seed] [bots] [layout]
+ * where bots is a comma separated list of bot names, one per seat (see BotFactory),
+ * and layout is a layout index (random layouts if left out).
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class BatchRunner {
+	/** Games are abandoned after this many turns (pits can trap the last tokens) */
+	public static final int MAX_TURNS = TurnBenchmark.MAX_TURNS;
+	
+	private int rows, players, tokens, winCount, pitMode;
+	private String botNames;			//bot for each seat
+	private long layoutIndex;			//layout of every game, or SweepConfig.RANDOM_LAYOUT
+	
+	/** Constructor: <br />
+	 * Creates a runner for games with the given settings.
+	 * @param botNames - comma separated bot names, one per seat (see BotFactory.createSeats)
+	 */
+	public BatchRunner(int rows, int players, int tokens, int winCount, int pitMode, String botNames) {
+		this.rows = rows;
+		this.players = players;
+		this.tokens = tokens;
+		this.winCount = winCount;
+		this.pitMode = pitMode;
+		this.botNames = botNames;
+		layoutIndex = SweepConfig.RANDOM_LAYOUT;
+	}
+	
+	/** Method setLayoutIndex: <br />
+	 * Plays every game on one pit layout instead of a random one
+	 * @param layoutIndex - from 0 to PitLayoutCatalog.getLayoutCount(rows) - 1,
+	 * or SweepConfig.RANDOM_LAYOUT
+	 */
+	public void setLayoutIndex(long layoutIndex) {
+		if (layoutIndex != SweepConfig.RANDOM_LAYOUT) PitLayoutCatalog.getLayout(layoutIndex, new int[rows]);
+		this.layoutIndex = layoutIndex;
+	}
+	
+	/** Method run: <br />
+	 * Plays the games and waits for them to finish.
+	 * @param games - number of games to play
+	 * @param threads - number of worker threads
+	 * @param seed - seed for the whole batch
+	 * @return totals of all games
+	 * @throws InterruptedException - if interrupted while waiting for the workers
+	 * @throws ExecutionException - if a worker failed
+	 */
+	public BatchStats run(int games, int threads, long seed) throws InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<BatchStats>> results = new ArrayList<Future<BatchStats>>();
+			for (int w = 0; w < threads; w++) {
+				results.add(pool.submit(new Worker(w, threads, games, seed)));
+			}
+			BatchStats total = new BatchStats(players);
+			for (int w = 0; w < threads; w++) {
+				total.merge(results.get(w).get());
+			}
+			return total;
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+	
+	/** Method runGames: <br />
+	 * Plays games first, first + step, first + 2 * step, ... on this thread.
+	 * @param first - number of the first game
+	 * @param step - distance between game numbers
+	 * @param games - total games in the batch
+	 * @param seed - seed for the whole batch
+	 * @param stats - receives the results
+	 */
+	public void runGames(int first, int step, int games, long seed, BatchStats stats) {
+		for (int g = first; g < games; g += step) {
+			GameRandom random = gameRandom(seed, g);
+			Bot[] bots = BotFactory.createSeats(botNames, players, random.nextLong());
+			GameBoard board;
+			if (layoutIndex == SweepConfig.RANDOM_LAYOUT) {
+				board = new GameBoard(rows, rows + 3, players, tokens, winCount, pitMode, 
+						new NullGameListener(), GameBoard.PACKED_STORAGE, random);
+			}
+			else {
+				board = new GameBoard(rows, rows + 3, players, tokens, winCount, pitMode, 
+						new NullGameListener(), GameBoard.PACKED_STORAGE, random, layoutIndex);
+			}
+			playGame(board, bots, stats);
+		}
+	}
+	
+	/** Method gameRandom: <br />
+	 * @return the generator for game number g of a batch
+	 */
+	public static GameRandom gameRandom(long seed, long g) {
+		return new GameRandom(new GameRandom(seed + g).nextLong());
+	}
+	
+	/** Method playGame: <br />
+	 * Plays a game from token placement until there is a winner 
+	 * (or MAX_TURNS turns have been played), each seat's bot choosing its moves.
+	 * @param board - a freshly created board
+	 * @param bots - a bot for each seat
+	 * @param stats - receives the result, or null
+	 * @return number of turns played after placement
+	 */
+	public static int playGame(GameBoard board, Bot[] bots, BatchStats stats) {
+		PlayerTracker tracker = board.getTracker();
+		int[] moves = new int[board.getMaxMoveCount()];
+		board.setPlacementStage();
+		while (board.getStage() == board.PLACEMENT) {
+			int count = board.generateMoves(moves);
+			board.applyMove(bots[board.getCurrentPlayer()].chooseMove(board, moves, count));
+		}
+		
+		int firstTurn = board.getTurnCounter();
+		int[] finished = new int[bots.length];
+		while (board.getStage() == board.PLAY && board.getTurnCounter() - firstTurn < MAX_TURNS) {
+			int count = board.generateMoves(moves);
+			board.applyMove(bots[board.getCurrentPlayer()].chooseMove(board, moves, count));
+			//a forward move can take any player's token to the finish
+			if (stats != null) {
+				for (int p = 0; p < finished.length; p++) {
+					if (tracker.getFinishedCount(p) > finished[p]) {
+						finished[p]++;
+						stats.tokenArrived(p, board.getTurnCounter() - firstTurn);
+					}
+				}
+			}
+		}
+		int turns = board.getTurnCounter() - firstTurn;
+		if (stats != null) stats.gameOver(board, turns);
+		return turns;
+	}
+	
+	/** Class Worker: <br />
+	 * Plays every threads'th game of the batch into its own totals.
+	 */
+	private class Worker implements Callable<BatchStats> {
+		private int first, step, games;
+		private long seed;
+		
+		Worker(int first, int step, int games, long seed) {
+			this.first = first;
+			this.step = step;
+			this.games = games;
+			this.seed = seed;
+		}
+		
+		public BatchStats call() {
+			BatchStats stats = new BatchStats(players);
+			runGames(first, step, games, seed, stats);
+			return stats;
+		}
+	}
+	
+	/** Method main: <br />
+	 * Runs a batch and prints the totals and games/sec.
+	 * @param args [games] [rows] [players] [tokens] [winCount] [pitMode] [threads] [seed] [bots] [layout]
+	 */
+	public static void main(String[] args) throws Exception {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+		int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int tokens = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+		int winCount = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+		int pitMode = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+		int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 7 ? Long.parseLong(args[7]) : 42;
+		String bots = args.length > 8 ? args[8] : "random";
+		long layoutIndex = args.length > 9 ? Long.parseLong(args[9]) : SweepConfig.RANDOM_LAYOUT;
+		
+		BatchRunner runner = new BatchRunner(rows, players, tokens, winCount, pitMode, bots);
+		runner.setLayoutIndex(layoutIndex);
+		long start = System.nanoTime();
+		BatchStats stats = runner.run(games, threads, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		System.out.println("Board: " + rows + " x " + (rows + 3) + ", players: " + players + 
+				", tokens: " + tokens + ", to win: " + winCount + ", pit mode: " + pitMode + 
+				", bots: " + bots + (layoutIndex == SweepConfig.RANDOM_LAYOUT ? "" : ", layout: " + layoutIndex));
+		stats.print(System.out);
+		System.out.println(threads + " threads: " + Math.round(games / seconds) + " games/sec");
+	}
+}
@@ -0,0 +1,213 @@
+package simulation;
+
+import java.io.PrintStream;
+
+import application.GameBoard;
+import application.PlayerTracker;
+
+/** Class BatchStats: <br />
+ * Totals the results of many simulated games with the same settings:
+ * wins by seat, game length in turns, tokens reaching the finish column,
+ * and tokens lost to black holes.  Each worker thread keeps its own
+ * BatchStats, and they are merged once the workers are done, so no
+ * locking is needed while games are played.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class BatchStats {
+	private int players;				//number of seats
+	private long games;					//games recorded
+	private long abandoned;				//games stopped at the turn limit without a winner
+	private long[] winsBySeat;			//games won by each seat
+	private long turns;					//total turns of all games (after placement)
+	private long turnsSquared;			//sum of squared game lengths, for the deviation
+	private int minTurns = Integer.MAX_VALUE;
+	private int maxTurns;
+	private long[] arrivalsBySeat;		//tokens of each seat that reached the finish column
+	private long arrivalTurns;			//sum of the turns tokens reached the finish column on
+	private long tokens;				//tokens in all games
+	private long unwinnableTokens;		//tokens that could no longer win at the end of a game
+	private long gamesWithUnwinnable;	//games where at least one token could no longer win
+	
+	/** Constructor: <br />
+	 * @param players - number of seats in every game
+	 */
+	public BatchStats(int players) {
+		this.players = players;
+		winsBySeat = new long[players];
+		arrivalsBySeat = new long[players];
+	}
+	
+	/** Method tokenArrived: <br />
+	 * Records a token reaching the finish column.
+	 * @param seat - owner of the token
+	 * @param turn - turns played (after placement) when it arrived
+	 */
+	public void tokenArrived(int seat, int turn) {
+		arrivalsBySeat[seat]++;
+		arrivalTurns += turn;
+	}
+	
+	/** Method gameOver: <br />
+	 * Records the result of a finished (or abandoned) game.
+	 * @param board - the board at the end of the game
+	 * @param gameTurns - turns played after placement
+	 */
+	public void gameOver(GameBoard board, int gameTurns) {
+		PlayerTracker tracker = board.getTracker();
+		games++;
+		if (tracker.hasWinner()) winsBySeat[tracker.getWinner()]++;
+		else abandoned++;
+		turns += gameTurns;
+		turnsSquared += (long) gameTurns * gameTurns;
+		minTurns = Math.min(minTurns, gameTurns);
+		maxTurns = Math.max(maxTurns, gameTurns);
+		
+		int lost = 0;
+		for (int p = 0; p < players; p++) {
+			lost += tracker.getTokenCount() - tracker.getWinnableCount(p);
+		}
+		tokens += tracker.getTotalTokenCount();
+		unwinnableTokens += lost;
+		if (lost > 0) gamesWithUnwinnable++;
+	}
+	
+	/** Method merge: <br />
+	 * Adds another worker's totals to these.
+	 * @param other - totals for games with the same number of players
+	 */
+	public void merge(BatchStats other) {
+		games += other.games;
+		abandoned += other.abandoned;
+		for (int p = 0; p < players; p++) {
+			winsBySeat[p] += other.winsBySeat[p];
+			arrivalsBySeat[p] += other.arrivalsBySeat[p];
+		}
+		turns += other.turns;
+		turnsSquared += other.turnsSquared;
+		minTurns = Math.min(minTurns, other.minTurns);
+		maxTurns = Math.max(maxTurns, other.maxTurns);
+		arrivalTurns += other.arrivalTurns;
+		tokens += other.tokens;
+		unwinnableTokens += other.unwinnableTokens;
+		gamesWithUnwinnable += other.gamesWithUnwinnable;
+	}
+	
+	/** Method getGames: <br />
+	 * @return number of games recorded
+	 */
+	public long getGames() {
+		return games;
+	}
+	
+	/** Method getAbandoned: <br />
+	 * @return number of games stopped at the turn limit
+	 */
+	public long getAbandoned() {
+		return abandoned;
+	}
+	
+	/** Method getWins: <br />
+	 * @param seat - player ID
+	 * @return games won by the seat
+	 */
+	public long getWins(int seat) {
+		return winsBySeat[seat];
+	}
+	
+	/** Method getWinRate: <br />
+	 * @param seat - player ID
+	 * @return fraction of games won by the seat
+	 */
+	public double getWinRate(int seat) {
+		return games == 0 ? 0 : (double) winsBySeat[seat] / games;
+	}
+	
+	/** Method getArrivals: <br />
+	 * @param seat - player ID
+	 * @return tokens of the seat that reached the finish column
+	 */
+	public long getArrivals(int seat) {
+		return arrivalsBySeat[seat];
+	}
+	
+	/** Method getMeanTurns: <br />
+	 * @return average game length in turns (after placement)
+	 */
+	public double getMeanTurns() {
+		return games == 0 ? 0 : (double) turns / games;
+	}
+	
+	/** Method getTurnDeviation: <br />
+	 * @return standard deviation of the game length in turns
+	 */
+	public double getTurnDeviation() {
+		if (games == 0) return 0;
+		double mean = getMeanTurns();
+		return Math.sqrt(Math.max(0, (double) turnsSquared / games - mean * mean));
+	}
+	
+	/** Method getMinTurns: <br />
+	 * @return shortest game in turns (0 if no games)
+	 */
+	public int getMinTurns() {
+		return games == 0 ? 0 : minTurns;
+	}
+	
+	/** Method getMaxTurns: <br />
+	 * @return longest game in turns
+	 */
+	public int getMaxTurns() {
+		return maxTurns;
+	}
+	
+	/** Method getMeanArrivalTurn: <br />
+	 * @return average turn on which a token reached the finish column
+	 */
+	public double getMeanArrivalTurn() {
+		long arrivals = 0;
+		for (int p = 0; p < players; p++) {
+			arrivals += arrivalsBySeat[p];
+		}
+		return arrivals == 0 ? 0 : (double) arrivalTurns / arrivals;
+	}
+	
+	/** Method getUnwinnableRate: <br />
+	 * @return fraction of all tokens that could no longer win at the end of their game
+	 */
+	public double getUnwinnableRate() {
+		return tokens == 0 ? 0 : (double) unwinnableTokens / tokens;
+	}
+	
+	/** Method getUnwinnableGameRate: <br />
+	 * @return fraction of games in which some token could no longer win
+	 */
+	public double getUnwinnableGameRate() {
+		return games == 0 ? 0 : (double) gamesWithUnwinnable / games;
+	}
+	
+	/** Method print: <br />
+	 * Writes a readable report of the totals
+	 * @param out - where to write the report
+	 */
+	public void print(PrintStream out) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Games: ").append(games).append(" (").append(abandoned).append(" abandoned at the turn limit)\n");
+		sb.append("Turns per game: mean ").append(round(getMeanTurns())).append(", deviation ")
+				.append(round(getTurnDeviation())).append(", min ").append(getMinTurns())
+				.append(", max ").append(getMaxTurns()).append('\n');
+		for (int p = 0; p < players; p++) {
+			sb.append("Seat ").append(p).append(": win rate ").append(round(getWinRate(p) * 100))
+					.append("%, finish arrivals ").append(arrivalsBySeat[p]).append('\n');
+		}
+		sb.append("Mean finish arrival turn: ").append(round(getMeanArrivalTurn())).append('\n');
+		sb.append("Unwinnable tokens: ").append(round(getUnwinnableRate() * 100)).append("% of tokens, in ")
+				.append(round(getUnwinnableGameRate() * 100)).append("% of games\n");
+		out.print(sb);
+	}
+	
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
@@ -0,0 +1,44 @@
+package simulation;
+
+import java.io.File;
+
+import application.GameRandom;
+import application.PitLayoutCatalog;
+
+/** Class CatalogBuilder: <br />
+ * Makes a pit layout catalog (see PitLayoutCatalog) and saves it, so
+ * that later batches and sweeps can be run on the same layouts
+ * (see SweepEngine's catalog setting).  Prints the layouts kept for
+ * each board size.
+ * Usage: CatalogBuilder file [sizes] [perSize] [seed]
+ * where sizes are numbers or ranges such as 4-12 or 4,6,8.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class CatalogBuilder {
+
+	/** Method main: <br />
+	 * Builds the catalog, writes it, and reads it back to report on it.
+	 * @param args file [sizes] [perSize] [seed]
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.out.println("Usage: CatalogBuilder file [sizes=4-12] [perSize=100] [seed=42]");
+			return;
+		}
+		File file = new File(args[0]);
+		int[] sizes = args.length > 1 ? SweepConfig.parseValues(args[1])
+				: SweepConfig.range(SweepConfig.MIN_ROWS, SweepConfig.MAX_ROWS);
+		int perSize = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+		PitLayoutCatalog.build(sizes, perSize, new GameRandom(seed)).write(file);
+		PitLayoutCatalog catalog = PitLayoutCatalog.open(file);
+		for (int s = 0; s < sizes.length; s++) {
+			System.out.println(sizes[s] + " rows: " + catalog.getCount(sizes[s]) + " of "
+					+ PitLayoutCatalog.getLayoutCount(sizes[s]) + " layouts");
+		}
+		System.out.println("Saved to " + file);
+	}
+}
@@ -0,0 +1,184 @@
+package simulation;
+
+import java.io.PrintStream;
+
+/** Class EloRatings: <br />
+ * Rates players from the results of head-to-head games.  The ratings are
+ * the most likely strengths under the Bradley-Terry model (the model
+ * behind Elo: a player rated d points above another is expected to score
+ * 1 / (1 + 10^(-d / 400)) against it), found by the MM iteration of
+ * Hunter.  Unlike updating ratings game by game, the result does not
+ * depend on the order the games were played in.
+ * <br />
+ * Each pair of players that met is also given one drawn game, so that a
+ * player who won or lost every game still gets a finite rating.  The
+ * ratings average 1500.  The confidence interval of a rating comes from
+ * the curvature of the likelihood at the ratings found (the other ratings
+ * taken as known), so it narrows with the square root of the games played.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class EloRatings {
+	/** Average of the ratings */
+	public static final double MEAN = 1500;
+	/** Elo points per natural log unit of strength */
+	public static final double SCALE = 400 / Math.log(10);
+	/** Normal quantile for 95% confidence intervals */
+	public static final double Z95 = 1.96;
+
+	private static final int ITERATIONS = 10000;
+	private static final double TOLERANCE = 1e-9;
+
+	private int players;
+	private double[][] games;			//games played between each pair (including the drawn one added)
+	private double[][] score;			//points each player scored against each other (1 win, 0.5 draw)
+	private double[] rating;			//ratings, once computed
+	private double[] interval;			//half widths of the 95% confidence intervals
+	private boolean current;			//ratings are up to date with the games
+
+	/** Constructor: <br />
+	 * @param players - number of players
+	 */
+	public EloRatings(int players) {
+		this.players = players;
+		games = new double[players][players];
+		score = new double[players][players];
+	}
+
+	/** Method addGame: <br />
+	 * Records a game between two players
+	 * @param a - one player
+	 * @param b - the other player
+	 * @param scoreA - 1 if a won, 0 if b won, 0.5 for a draw
+	 */
+	public void addGame(int a, int b, double scoreA) {
+		if (games[a][b] == 0) {
+			//the drawn game every pair is given
+			games[a][b] = games[b][a] = 1;
+			score[a][b] = score[b][a] = 0.5;
+		}
+		games[a][b]++;
+		games[b][a]++;
+		score[a][b] += scoreA;
+		score[b][a] += 1 - scoreA;
+		current = false;
+	}
+
+	/** Method compute: <br />
+	 * Works out the ratings and their confidence intervals
+	 */
+	private void compute() {
+		if (current) return;
+		double[] strength = new double[players];
+		for (int i = 0; i < players; i++) {
+			strength[i] = 1;
+		}
+		for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+			double change = 0;
+			for (int i = 0; i < players; i++) {
+				double wins = 0, denominator = 0;
+				for (int j = 0; j < players; j++) {
+					if (j == i || games[i][j] == 0) continue;
+					wins += score[i][j];
+					denominator += games[i][j] / (strength[i] + strength[j]);
+				}
+				if (denominator == 0) continue;
+				double updated = wins / denominator;
+				change = Math.max(change, Math.abs(Math.log(updated / strength[i])));
+				strength[i] = updated;
+			}
+			//keep the geometric mean at 1 so the numbers stay in range
+			double logMean = 0;
+			for (int i = 0; i < players; i++) {
+				logMean += Math.log(strength[i]) / players;
+			}
+			for (int i = 0; i < players; i++) {
+				strength[i] /= Math.exp(logMean);
+			}
+			if (change < TOLERANCE) break;
+		}
+
+		rating = new double[players];
+		interval = new double[players];
+		for (int i = 0; i < players; i++) {
+			rating[i] = MEAN + SCALE * Math.log(strength[i]);
+			double information = 0;
+			for (int j = 0; j < players; j++) {
+				if (j == i || games[i][j] == 0) continue;
+				double p = strength[i] / (strength[i] + strength[j]);
+				information += games[i][j] * p * (1 - p);
+			}
+			interval[i] = information == 0 ? Double.POSITIVE_INFINITY : Z95 * SCALE / Math.sqrt(information);
+		}
+		current = true;
+	}
+
+	/** Method getRating: <br />
+	 * @return the player's rating
+	 */
+	public double getRating(int player) {
+		compute();
+		return rating[player];
+	}
+
+	/** Method getInterval: <br />
+	 * @return half the width of the 95% confidence interval of the player's rating
+	 */
+	public double getInterval(int player) {
+		compute();
+		return interval[player];
+	}
+
+	/** Method getGames: <br />
+	 * @return games the player played (not counting the drawn games added)
+	 */
+	public int getGames(int player) {
+		int total = 0;
+		for (int j = 0; j < players; j++) {
+			if (games[player][j] > 0) total += (int) games[player][j] - 1;
+		}
+		return total;
+	}
+
+	/** Method getScore: <br />
+	 * @return points the player scored (not counting the drawn games added)
+	 */
+	public double getScore(int player) {
+		double total = 0;
+		for (int j = 0; j < players; j++) {
+			if (games[player][j] > 0) total += score[player][j] - 0.5;
+		}
+		return total;
+	}
+
+	/** Method print: <br />
+	 * Prints a table of the players, best rated first
+	 * @param out - where to print
+	 * @param names - name of each player
+	 */
+	public void print(PrintStream out, String[] names) {
+		compute();
+		int[] order = new int[players];
+		for (int i = 0; i < players; i++) {
+			order[i] = i;
+		}
+		//insertion sort by rating, best first
+		for (int i = 1; i < players; i++) {
+			int p = order[i];
+			int j = i;
+			while (j > 0 && rating[order[j - 1]] < rating[p]) {
+				order[j] = order[j - 1];
+				j--;
+			}
+			order[j] = p;
+		}
+		out.println(String.format("%-4s %-16s %7s %8s %7s %7s", "Rank", "Bot", "Elo", "95%", "Games", "Score"));
+		for (int i = 0; i < players; i++) {
+			int p = order[i];
+			int played = getGames(p);
+			out.println(String.format("%-4d %-16s %7.0f %8s %7d %6.1f%%", i + 1, names[p], rating[p],
+					"+/-" + Math.round(interval[p]), played, played == 0 ? 0 : 100 * getScore(p) / played));
+		}
+	}
+}
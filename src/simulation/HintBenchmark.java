@@ -0,0 +1,83 @@
+package simulation;
+
+import ai.HintEngine;
+import application.GameBoard;
+import application.GameRandom;
+import application.NullGameListener;
+
+/** Class HintBenchmark: <br />
+ * Measures how long hints (see HintEngine) take, and which tier they
+ * come from, on the positions of seeded random games.  Prints a
+ * histogram of the times, with its percentiles.  The defaults are the
+ * largest game: 12 rows, 6 players with 8 tokens each.
+ * Usage: HintBenchmark [hints] [millis] [rows] [players] [tokens] [winCount] [pitMode] [seed]
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class HintBenchmark {
+
+	/** Method run: <br />
+	 * Asks for a hint at each position of random games, until enough hints are counted.
+	 * @param engine - the engine to time
+	 * @param hints - number of hints
+	 * @param millis - time limit of each hint
+	 * @param times - counts the time of each hint
+	 * @param tiers - counts the hints of each tier (see HintEngine.TIER_NAMES)
+	 * @param seed - seed for the games
+	 */
+	public static void run(HintEngine engine, int hints, long millis, int rows, int players, int tokens,
+			int winCount, int pitMode, long seed, LatencyHistogram times, int[] tiers) {
+		GameRandom rng = new GameRandom(seed);
+		int asked = 0;
+		while (asked < hints) {
+			GameBoard board = new GameBoard(rows, rows + 3, players, tokens, winCount, pitMode,
+					new NullGameListener(), GameBoard.PACKED_STORAGE, rng.split());
+			int[] moves = new int[board.getMaxMoveCount()];
+			board.setPlacementStage();
+			while (board.getStage() != board.GAME_OVER && asked < hints) {
+				long start = System.nanoTime();
+				engine.suggestMove(board, millis);
+				times.add((System.nanoTime() - start) / 1e6);
+				tiers[engine.getLastTier()]++;
+				asked++;
+				int count = board.generateMoves(moves);
+				board.applyMove(moves[rng.nextInt(count)]);
+			}
+		}
+	}
+
+	/** Method main: <br />
+	 * Prints the histogram of hint times and the share of each tier.
+	 * @param args [hints] [millis] [rows] [players] [tokens] [winCount] [pitMode] [seed]
+	 */
+	public static void main(String[] args) {
+		int hints = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : HintEngine.HINT_MILLIS;
+		int rows = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+		int players = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+		int tokens = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+		int winCount = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+		int pitMode = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+		long seed = args.length > 7 ? Long.parseLong(args[7]) : 42;
+
+		System.out.println("Board: " + rows + " x " + (rows + 3) + ", players: " + players +
+				", tokens: " + tokens + ", to win: " + winCount + ", pit mode: " + pitMode +
+				", " + millis + " ms per hint");
+		HintEngine engine = new HintEngine(seed);
+		//warm up before measuring
+		run(engine, 100, millis, rows, players, tokens, winCount, pitMode, seed + 1,
+				new LatencyHistogram(1, 1000), new int[HintEngine.TIER_NAMES.length]);
+
+		LatencyHistogram times = new LatencyHistogram(5, 40);
+		int[] tiers = new int[HintEngine.TIER_NAMES.length];
+		run(engine, hints, millis, rows, players, tokens, winCount, pitMode, seed, times, tiers);
+		engine.close();
+
+		times.print(System.out);
+		for (int t = 0; t < tiers.length; t++) {
+			System.out.println(String.format("%-10s %6d  %5.1f%%", HintEngine.TIER_NAMES[t], tiers[t],
+					100.0 * tiers[t] / hints));
+		}
+	}
+}
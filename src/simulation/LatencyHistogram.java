@@ -0,0 +1,101 @@
+package simulation;
+
+import java.io.PrintStream;
+
+/** Class LatencyHistogram: <br />
+ * Counts how long something took, in buckets of a fixed width, so
+ * that percentiles (such as the 99th) can be read off without keeping
+ * every measurement.  Times past the last bucket are counted together.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class LatencyHistogram {
+	private double bucketMillis;		//width of each bucket
+	private long[] counts;				//measurements in each bucket, the last for everything beyond
+	private long total;					//measurements
+	private double sumMillis;			//sum of the measurements
+	private double maxMillis;			//longest measurement
+
+	/** Constructor: <br />
+	 * @param bucketMillis - width of each bucket in milliseconds
+	 * @param buckets - number of buckets before the one for longer times
+	 */
+	public LatencyHistogram(double bucketMillis, int buckets) {
+		this.bucketMillis = bucketMillis;
+		counts = new long[buckets + 1];
+	}
+
+	/** Method add: <br />
+	 * Counts a measurement
+	 * @param millis - time taken in milliseconds
+	 */
+	public void add(double millis) {
+		int bucket = (int) Math.min(counts.length - 1, Math.max(0, millis / bucketMillis));
+		counts[bucket]++;
+		total++;
+		sumMillis += millis;
+		maxMillis = Math.max(maxMillis, millis);
+	}
+
+	/** Method getCount: <br />
+	 * @return number of measurements
+	 */
+	public long getCount() {
+		return total;
+	}
+
+	/** Method getMean: <br />
+	 * @return mean of the measurements in milliseconds
+	 */
+	public double getMean() {
+		return total == 0 ? 0 : sumMillis / total;
+	}
+
+	/** Method getMax: <br />
+	 * @return the longest measurement in milliseconds
+	 */
+	public double getMax() {
+		return maxMillis;
+	}
+
+	/** Method getPercentile: <br />
+	 * @param percent - from 0 to 100
+	 * @return time in milliseconds that the given percent of the measurements
+	 * took no longer than (the top of its bucket, or the longest measurement if
+	 * that is less), 0 if there are none
+	 */
+	public double getPercentile(double percent) {
+		if (total == 0) return 0;
+		long needed = (long) Math.ceil(total * percent / 100);
+		long seen = 0;
+		for (int i = 0; i < counts.length - 1; i++) {
+			seen += counts[i];
+			if (seen >= needed && seen > 0) return Math.min((i + 1) * bucketMillis, maxMillis);
+		}
+		return maxMillis;
+	}
+
+	/** Method print: <br />
+	 * Prints the percentiles and a bar for each bucket that has measurements
+	 * @param out - where to print
+	 */
+	public void print(PrintStream out) {
+		out.println(String.format("count %d  mean %.2f ms  p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  max %.2f ms",
+				total, getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getMax()));
+		long most = 0;
+		for (int i = 0; i < counts.length; i++) {
+			most = Math.max(most, counts[i]);
+		}
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) continue;
+			String range = (i == counts.length - 1) ? String.format(">= %.0f ms", i * bucketMillis)
+					: String.format("%.0f-%.0f ms", i * bucketMillis, (i + 1) * bucketMillis);
+			StringBuilder bar = new StringBuilder();
+			for (int j = 0; j < 50 * counts[i] / most; j++) {
+				bar.append('#');
+			}
+			out.println(String.format("%12s %8d %s", range, counts[i], bar));
+		}
+	}
+}
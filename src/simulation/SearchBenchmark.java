@@ -0,0 +1,100 @@
+package simulation;
+
+import ai.Bot;
+import ai.ExpectimaxBot;
+import ai.MctsBot;
+import application.GameBoard;
+import application.GameRandom;
+import application.NullGameListener;
+
+/** Class SearchBenchmark: <br />
+ * Measures how fast the tree search bot (see MctsBot) plays out games
+ * with 1, 2, 4, ... threads up to the number given, so that the hardware
+ * for games with many bots can be sized.  Each thread count searches the
+ * same positions: random games are played part way, and the bot makes a
+ * timed search from every position where it has a choice.
+ * The expectiminimax bot (see ExpectimaxBot) is then timed on the same
+ * positions, in positions searched per second, for comparison.
+ * Usage: SearchBenchmark [threads] [millis] [positions] [rows] [players] [tokens] [winCount] [pitMode]
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class SearchBenchmark {
+
+	/** Method run: <br />
+	 * Searches the positions of seeded random games.
+	 * @param bot - the bot to time, an MctsBot or ExpectimaxBot
+	 * @param positions - number of searches
+	 * @param seed - seed for the games
+	 * @return playouts (MctsBot) or positions searched (ExpectimaxBot) per second over all the searches
+	 */
+	public static double run(Bot bot, int positions, int rows, int players, int tokens, int winCount,
+			int pitMode, long seed) {
+		GameRandom rng = new GameRandom(seed);
+		long work = 0;
+		double millis = 0;
+		int searched = 0;
+		while (searched < positions) {
+			GameBoard board = new GameBoard(rows, rows + 3, players, tokens, winCount, pitMode,
+					new NullGameListener(), GameBoard.PACKED_STORAGE, rng.split());
+			int[] moves = new int[board.getMaxMoveCount()];
+			board.setPlacementStage();
+			int stop = rng.nextInt(60);
+			for (int turn = 0; board.getStage() != board.GAME_OVER && searched < positions; turn++) {
+				int count = board.generateMoves(moves);
+				if (turn >= stop && count > 1) {
+					bot.chooseMove(board, moves, count);
+					if (bot instanceof MctsBot) {
+						work += ((MctsBot) bot).getLastPlayouts();
+						millis += ((MctsBot) bot).getLastMillis();
+					}
+					else {
+						work += ((ExpectimaxBot) bot).getLastNodes();
+						millis += ((ExpectimaxBot) bot).getLastMillis();
+					}
+					searched++;
+				}
+				board.applyMove(moves[rng.nextInt(count)]);
+			}
+		}
+		return work / (millis / 1000);
+	}
+
+	/** Method main: <br />
+	 * Prints playouts/sec, in total and per thread, for each thread count,
+	 * then the positions/sec of the expectiminimax bot.
+	 * @param args [threads] [millis] [positions] [rows] [players] [tokens] [winCount] [pitMode]
+	 */
+	public static void main(String[] args) {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int millis = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int positions = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		int rows = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+		int players = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+		int tokens = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+		int winCount = args.length > 6 ? Integer.parseInt(args[6]) : 3;
+		int pitMode = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+
+		System.out.println("Board: " + rows + " x " + (rows + 3) + ", players: " + players +
+				", tokens: " + tokens + ", to win: " + winCount + ", pit mode: " + pitMode +
+				", " + millis + " ms per search, " + Runtime.getRuntime().availableProcessors() + " processors");
+		//warm up for a few seconds before measuring
+		MctsBot warmUp = new MctsBot(1, 0, 100, 1);
+		run(warmUp, 30, rows, players, tokens, winCount, pitMode, 1);
+		warmUp.close();
+
+		for (int t = 1; t <= threads; t = (t == threads) ? t + 1 : Math.min(t * 2, threads)) {
+			MctsBot bot = new MctsBot(t, 0, millis, 7);
+			double rate = run(bot, positions, rows, players, tokens, winCount, pitMode, 42);
+			bot.close();
+			System.out.println("Threads: " + t + "  playouts/sec: " + Math.round(rate) +
+					"  per core: " + Math.round(rate / t));
+		}
+		
+		ExpectimaxBot expectimax = new ExpectimaxBot(ExpectimaxBot.MAX_DEPTH, millis, 64);
+		run(expectimax, positions, rows, players, tokens, winCount, pitMode, 1);
+		double rate = run(expectimax, positions, rows, players, tokens, winCount, pitMode, 42);
+		System.out.println("Expectiminimax, 1 thread  nodes/sec: " + Math.round(rate));
+	}
+}
@@ -0,0 +1,207 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import application.PitLayoutCatalog;
+
+/** Class SweepConfig: <br />
+ * One combination of game settings in a parameter sweep:
+ * board rows, players, tokens per player, tokens needed to win, and pit mode,
+ * and either a pit layout (see PitLayoutCatalog) or a new random layout for every game.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class SweepConfig {
+	/** Board rows offered by the game setup screens */
+	public static final int MIN_ROWS = 4, MAX_ROWS = 12;
+	/** Player counts offered by the game setup screens */
+	public static final int MIN_PLAYERS = 2, MAX_PLAYERS = 6;
+	/** Tokens per player offered by the game setup screens */
+	public static final int MIN_TOKENS = 2, MAX_TOKENS = 8;
+	/** Pit modes (PITS to ORIGINS) */
+	public static final int MIN_PIT_MODE = 0, MAX_PIT_MODE = 3;
+	/** Layout index of configurations that use a new random layout for every game */
+	public static final long RANDOM_LAYOUT = -1;
+	
+	private int rows, players, tokens, winCount, pitMode;
+	private long layoutIndex;			//pit layout of every game, or RANDOM_LAYOUT
+	
+	/** Constructor: <br />
+	 * Creates a combination of settings whose games each get a random layout.
+	 */
+	public SweepConfig(int rows, int players, int tokens, int winCount, int pitMode) {
+		this(rows, players, tokens, winCount, pitMode, RANDOM_LAYOUT);
+	}
+	
+	/** Constructor: <br />
+	 * Creates a combination of settings whose games are all played on one layout.
+	 * @param layoutIndex - layout index (see PitLayoutCatalog), or RANDOM_LAYOUT
+	 */
+	public SweepConfig(int rows, int players, int tokens, int winCount, int pitMode, long layoutIndex) {
+		this.rows = rows;
+		this.players = players;
+		this.tokens = tokens;
+		this.winCount = winCount;
+		this.pitMode = pitMode;
+		this.layoutIndex = layoutIndex;
+	}
+	
+	/** Method grid: <br />
+	 * Lists every combination of the allowed values, in order of rows, 
+	 * then players, then tokens, then win count, then pit mode.
+	 * Win counts larger than the token count are left out.
+	 * @param rows - allowed board rows
+	 * @param players - allowed player counts
+	 * @param tokens - allowed tokens per player
+	 * @param winCounts - allowed win counts
+	 * @param pitModes - allowed pit modes
+	 * @return the combinations
+	 */
+	public static List<SweepConfig> grid(int[] rows, int[] players, int[] tokens, int[] winCounts, int[] pitModes) {
+		return grid(rows, players, tokens, winCounts, pitModes, null);
+	}
+	
+	/** Method grid: <br />
+	 * Lists every combination of the allowed values, as above, and for
+	 * each board size that the catalog holds, every one of its layouts of
+	 * that size (the layout changing fastest).  Sizes the catalog does
+	 * not hold get a random layout for every game.
+	 * @param catalog - layouts to play on, or null for random layouts
+	 * @return the combinations
+	 */
+	public static List<SweepConfig> grid(int[] rows, int[] players, int[] tokens, int[] winCounts, int[] pitModes,
+			PitLayoutCatalog catalog) {
+		List<SweepConfig> configs = new ArrayList<SweepConfig>();
+		for (int r = 0; r < rows.length; r++) {
+			for (int p = 0; p < players.length; p++) {
+				for (int t = 0; t < tokens.length; t++) {
+					for (int w = 0; w < winCounts.length; w++) {
+						if (winCounts[w] > tokens[t]) continue;
+						for (int m = 0; m < pitModes.length; m++) {
+							int layouts = (catalog == null) ? 0 : catalog.getCount(rows[r]);
+							if (layouts == 0) {
+								configs.add(new SweepConfig(rows[r], players[p], tokens[t], winCounts[w], pitModes[m]));
+							}
+							for (int l = 0; l < layouts; l++) {
+								configs.add(new SweepConfig(rows[r], players[p], tokens[t], winCounts[w], pitModes[m], 
+										catalog.getLayoutIndex(rows[r], l)));
+							}
+						}
+					}
+				}
+			}
+		}
+		return configs;
+	}
+	
+	/** Method parseValues: <br />
+	 * Reads a list of values such as "4-8", "2,4,6", or "3".
+	 * @param text - comma separated numbers or ranges
+	 * @return the values, in the order given
+	 * @throws NumberFormatException - if the text can't be read
+	 */
+	public static int[] parseValues(String text) {
+		List<Integer> values = new ArrayList<Integer>();
+		String[] parts = text.split(",");
+		for (int i = 0; i < parts.length; i++) {
+			String part = parts[i].trim();
+			int dash = part.indexOf('-', 1);
+			if (dash < 0) values.add(Integer.parseInt(part));
+			else {
+				int high = Integer.parseInt(part.substring(dash + 1).trim());
+				for (int v = Integer.parseInt(part.substring(0, dash).trim()); v <= high; v++) {
+					values.add(v);
+				}
+			}
+		}
+		int[] result = new int[values.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = values.get(i);
+		}
+		return result;
+	}
+	
+	/** Method range: <br />
+	 * @return the values from low to high
+	 */
+	public static int[] range(int low, int high) {
+		int[] values = new int[high - low + 1];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = low + i;
+		}
+		return values;
+	}
+	
+	/** Method getKey: <br />
+	 * @return a number for the combination of settings (the same as before
+	 * layouts were added for configurations with random layouts)
+	 */
+	public long getKey() {
+		long key = (((((long) rows * 64 + players) * 64 + tokens) * 64 + winCount) * 64) + pitMode;
+		if (layoutIndex == RANDOM_LAYOUT) return key;
+		return key ^ ((layoutIndex + 1) * 0x9E3779B97F4A7C15L);
+	}
+	
+	/** Method getRows: <br />
+	 * @return number of rows on the board
+	 */
+	public int getRows() {
+		return rows;
+	}
+	
+	/** Method getPlayers: <br />
+	 * @return number of players
+	 */
+	public int getPlayers() {
+		return players;
+	}
+	
+	/** Method getTokens: <br />
+	 * @return tokens per player
+	 */
+	public int getTokens() {
+		return tokens;
+	}
+	
+	/** Method getWinCount: <br />
+	 * @return tokens a player must finish to win
+	 */
+	public int getWinCount() {
+		return winCount;
+	}
+	
+	/** Method getPitMode: <br />
+	 * @return PITS(0), BLACK_HOLES(1), WORM_HOLES(2), or ORIGINS(3)
+	 */
+	public int getPitMode() {
+		return pitMode;
+	}
+	
+	/** Method getLayoutIndex: <br />
+	 * @return layout index of every game (see PitLayoutCatalog), or RANDOM_LAYOUT
+	 */
+	public long getLayoutIndex() {
+		return layoutIndex;
+	}
+	
+	public boolean equals(Object other) {
+		if (!(other instanceof SweepConfig)) return false;
+		SweepConfig config = (SweepConfig) other;
+		return config.rows == rows && config.players == players && config.tokens == tokens 
+				&& config.winCount == winCount && config.pitMode == pitMode && config.layoutIndex == layoutIndex;
+	}
+	
+	public int hashCode() {
+		return (int) (getKey() ^ (getKey() >>> 32));
+	}
+	
+	/** Method toString: <br />
+	 * @return the settings, for reports
+	 */
+	public String toString() {
+		return rows + " rows, " + players + " players, " + tokens + " tokens, " + winCount + 
+				" to win, pit mode " + pitMode + (layoutIndex == RANDOM_LAYOUT ? "" : ", layout " + layoutIndex);
+	}
+}
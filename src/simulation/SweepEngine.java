@@ -0,0 +1,153 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import application.GameRandom;
+import application.PitLayoutCatalog;
+
+/** Class SweepEngine: <br />
+ * Runs a batch of games for every configuration of a parameter sweep
+ * (see SweepConfig.grid), spreading the configurations over a pool of
+ * threads, and saves each configuration's results in a result cube
+ * (see SweepFile) as soon as it is done.  Running a sweep again with the
+ * same file and settings only runs the configurations not saved yet.
+ * <br />
+ * Usage: SweepEngine file [games] [threads] [seed] [bots] [setting=values ...] [catalog=file]
+ * where a setting is rows, players, tokens, win, or pit, and values are
+ * numbers or ranges such as rows=4-8 or pit=0,2.  Settings not given
+ * sweep everything the game setup screens allow.  With a layout catalog
+ * (see CatalogBuilder), each configuration is run on every layout the
+ * catalog holds for its board size, and the layout index is saved with
+ * its results.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class SweepEngine {
+	private List<SweepConfig> configs;	//configurations of the sweep
+	private int games;					//games per configuration
+	private long seed;					//seed of the whole sweep
+	private String bots;				//bot for each seat (see BotFactory)
+	
+	/** Constructor: <br />
+	 * @param configs - configurations to run
+	 * @param games - games per configuration
+	 * @param seed - seed of the whole sweep
+	 * @param bots - comma separated bot names, one per seat
+	 */
+	public SweepEngine(List<SweepConfig> configs, int games, long seed, String bots) {
+		this.configs = configs;
+		this.games = games;
+		this.seed = seed;
+		this.bots = bots;
+	}
+	
+	/** Method run: <br />
+	 * Runs every configuration not yet in the file.
+	 * @param path - the result cube (created if it does not exist)
+	 * @param threads - number of worker threads
+	 * @return number of configurations run
+	 * @throws IOException - if the file can't be used
+	 * @throws InterruptedException - if interrupted while waiting for the workers
+	 * @throws ExecutionException - if a worker failed
+	 */
+	public int run(File path, int threads) throws IOException, InterruptedException, ExecutionException {
+		final SweepFile cube = new SweepFile(path, configs, games, seed, bots);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int i = 0; i < configs.size(); i++) {
+				if (cube.isDone(i)) continue;
+				final int index = i;
+				results.add(pool.submit(new Callable<Object>() {
+					public Object call() throws IOException {
+						cube.write(index, runConfig(configs.get(index)));
+						return null;
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				results.get(i).get();
+			}
+			return results.size();
+		}
+		finally {
+			pool.shutdownNow();
+			cube.close();
+		}
+	}
+	
+	/** Method runConfig: <br />
+	 * Plays the games of one configuration on the calling thread.
+	 * The games depend only on the sweep seed and the configuration, 
+	 * not on which thread plays them or in what order.
+	 * @param config - the configuration
+	 * @return the results
+	 */
+	public BatchStats runConfig(SweepConfig config) {
+		BatchRunner runner = new BatchRunner(config.getRows(), config.getPlayers(), config.getTokens(), 
+				config.getWinCount(), config.getPitMode(), bots);
+		BatchStats stats = new BatchStats(config.getPlayers());
+		runner.setLayoutIndex(config.getLayoutIndex());
+		runner.runGames(0, 1, games, new GameRandom(seed ^ config.getKey()).nextLong(), stats);
+		return stats;
+	}
+	
+	/** Method main: <br />
+	 * Runs (or resumes) a sweep and reports how many configurations were run.
+	 * @param args file [games] [threads] [seed] [bots] [setting=values ...] [catalog=file]
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] rows = SweepConfig.range(SweepConfig.MIN_ROWS, SweepConfig.MAX_ROWS);
+		int[] players = SweepConfig.range(SweepConfig.MIN_PLAYERS, SweepConfig.MAX_PLAYERS);
+		int[] tokens = SweepConfig.range(SweepConfig.MIN_TOKENS, SweepConfig.MAX_TOKENS);
+		int[] winCounts = SweepConfig.range(1, SweepConfig.MAX_TOKENS);
+		int[] pitModes = SweepConfig.range(SweepConfig.MIN_PIT_MODE, SweepConfig.MAX_PIT_MODE);
+		PitLayoutCatalog catalog = null;
+		
+		//positional arguments first, then settings
+		String[] positional = { null, "200", Integer.toString(Runtime.getRuntime().availableProcessors()), "42", "random" };
+		int count = 0;
+		for (int i = 0; i < args.length; i++) {
+			int equals = args[i].indexOf('=');
+			if (equals < 0) {
+				if (count < positional.length) positional[count++] = args[i];
+				continue;
+			}
+			String setting = args[i].substring(0, equals);
+			if (setting.equals("catalog")) {
+				catalog = PitLayoutCatalog.open(new File(args[i].substring(equals + 1)));
+				continue;
+			}
+			int[] values = SweepConfig.parseValues(args[i].substring(equals + 1));
+			if (setting.equals("rows")) rows = values;
+			else if (setting.equals("players")) players = values;
+			else if (setting.equals("tokens")) tokens = values;
+			else if (setting.equals("win")) winCounts = values;
+			else if (setting.equals("pit")) pitModes = values;
+			else throw new IllegalArgumentException("Unknown setting: " + setting);
+		}
+		if (positional[0] == null) {
+			System.out.println("Usage: SweepEngine file [games] [threads] [seed] [bots] [rows=4-12] "
+					+ "[players=2-6] [tokens=2-8] [win=1-8] [pit=0-3] [catalog=file]");
+			return;
+		}
+		
+		List<SweepConfig> configs = SweepConfig.grid(rows, players, tokens, winCounts, pitModes, catalog);
+		SweepEngine engine = new SweepEngine(configs, Integer.parseInt(positional[1]), 
+				Long.parseLong(positional[3]), positional[4]);
+		long start = System.nanoTime();
+		int ran = engine.run(new File(positional[0]), Integer.parseInt(positional[2]));
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(configs.size() + " configurations, " + (configs.size() - ran) + " already done, " 
+				+ ran + " run in " + Math.round(seconds * 10) / 10.0 + " s");
+	}
+}
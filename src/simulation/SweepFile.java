@@ -0,0 +1,200 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Class SweepFile: <br />
+ * The result cube of a parameter sweep: a binary file with one
+ * fixed size record of statistics per game configuration, so that any
+ * configuration's results can be read without reading the rest.
+ * Records are written as configurations finish; a record whose done
+ * flag is not set has not been run yet, which lets an interrupted
+ * sweep carry on where it stopped.
+ * <pre>
+ *   header:  int MAGIC, int games per configuration, long seed,
+ *            int hash of the bot names, int number of configurations
+ *   record:  byte rows, players, tokens, win count, pit mode, done, 2 unused bytes
+ *            long layout index (see PitLayoutCatalog), -1 for a random layout each game
+ *            int games, int games abandoned at the turn limit
+ *            int wins for each of MAX_SEATS seats
+ *            float mean turns, float deviation of turns, int min turns, int max turns
+ *            int finish arrivals for each of MAX_SEATS seats
+ *            float mean arrival turn, float unwinnable token rate, float unwinnable game rate
+ * </pre>
+ * All numbers are big-endian.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class SweepFile {
+	/** Seats stored in every record (the most players a game can have) */
+	public static final int MAX_SEATS = SweepConfig.MAX_PLAYERS;
+	/** Bytes in the file header */
+	public static final int HEADER = 24;
+	/** Bytes in each record */
+	public static final int RECORD = 8 + 8 + 8 + 4 * MAX_SEATS + 16 + 4 * MAX_SEATS + 12;
+
+	private static final int MAGIC = 0x48485332;	//"HHS2", the format with layout indices
+	private static final int DONE = 5;				//offset of the done flag in a record
+
+	private RandomAccessFile file;
+	private List<SweepConfig> configs;
+	private boolean[] done;					//configurations with results
+
+	/** Constructor: <br />
+	 * Opens a result cube for the given sweep, creating it if it does
+	 * not exist.  An existing file must be for the same sweep: the same
+	 * configurations, games per configuration, seed, and bots.
+	 * @param path - the file
+	 * @param configs - configurations of the sweep, in order
+	 * @param games - games per configuration
+	 * @param seed - seed of the sweep
+	 * @param bots - bot names of the sweep
+	 * @throws IOException - if the file can't be used, or belongs to a different sweep
+	 */
+	public SweepFile(File path, List<SweepConfig> configs, int games, long seed, String bots) throws IOException {
+		this.configs = configs;
+		done = new boolean[configs.size()];
+		boolean exists = path.exists() && path.length() > 0;
+		file = new RandomAccessFile(path, "rw");
+
+		if (!exists) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			header.putInt(MAGIC).putInt(games).putLong(seed).putInt(bots.hashCode()).putInt(configs.size());
+			file.write(header.array());
+			ByteBuffer record = ByteBuffer.allocate(RECORD);
+			for (int i = 0; i < configs.size(); i++) {
+				record.clear();
+				putConfig(record, configs.get(i));
+				file.write(record.array());
+			}
+			return;
+		}
+
+		if (file.length() != HEADER + (long) configs.size() * RECORD) {
+			close();
+			throw new IOException(path + " is not the size of this sweep's results");
+		}
+		byte[] bytes = new byte[HEADER];
+		file.seek(0);
+		file.readFully(bytes);
+		ByteBuffer header = ByteBuffer.wrap(bytes);
+		if (header.getInt() != MAGIC || header.getInt() != games || header.getLong() != seed
+				|| header.getInt() != bots.hashCode() || header.getInt() != configs.size()) {
+			close();
+			throw new IOException(path + " holds results of a different sweep");
+		}
+		byte[] recordBytes = new byte[RECORD];
+		for (int i = 0; i < configs.size(); i++) {
+			file.seek(HEADER + (long) i * RECORD);
+			file.readFully(recordBytes);
+			ByteBuffer record = ByteBuffer.wrap(recordBytes);
+			SweepConfig config = configs.get(i);
+			if (record.get() != config.getRows() || record.get() != config.getPlayers()
+					|| record.get() != config.getTokens() || record.get() != config.getWinCount()
+					|| record.get() != config.getPitMode()) {
+				close();
+				throw new IOException(path + " holds results of a different sweep");
+			}
+			done[i] = record.get() != 0;
+			if (record.getLong(DONE + 3) != config.getLayoutIndex()) {
+				close();
+				throw new IOException(path + " holds results of a different sweep");
+			}
+		}
+	}
+
+	/** Method isDone: <br />
+	 * @param index - position of the configuration in the sweep
+	 * @return true if its results are in the file
+	 */
+	public boolean isDone(int index) {
+		return done[index];
+	}
+
+	/** Method getDoneCount: <br />
+	 * @return number of configurations with results in the file
+	 */
+	public int getDoneCount() {
+		int count = 0;
+		for (int i = 0; i < done.length; i++) {
+			if (done[i]) count++;
+		}
+		return count;
+	}
+
+	/** Method write: <br />
+	 * Saves the results of a configuration.  The record is written
+	 * before its done flag, so a sweep stopped part way through a write
+	 * runs that configuration again.  Safe to call from several threads.
+	 * @param index - position of the configuration in the sweep
+	 * @param stats - results of its games
+	 * @throws IOException - if the file can't be written
+	 */
+	public synchronized void write(int index, BatchStats stats) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(RECORD);
+		putConfig(record, configs.get(index));
+		record.putInt((int) stats.getGames()).putInt((int) stats.getAbandoned());
+		for (int p = 0; p < MAX_SEATS; p++) {
+			record.putInt(p < configs.get(index).getPlayers() ? (int) stats.getWins(p) : 0);
+		}
+		record.putFloat((float) stats.getMeanTurns()).putFloat((float) stats.getTurnDeviation());
+		record.putInt(stats.getMinTurns()).putInt(stats.getMaxTurns());
+		for (int p = 0; p < MAX_SEATS; p++) {
+			record.putInt(p < configs.get(index).getPlayers() ? (int) stats.getArrivals(p) : 0);
+		}
+		record.putFloat((float) stats.getMeanArrivalTurn());
+		record.putFloat((float) stats.getUnwinnableRate());
+		record.putFloat((float) stats.getUnwinnableGameRate());
+
+		long position = HEADER + (long) index * RECORD;
+		file.seek(position);
+		file.write(record.array());
+		file.seek(position + DONE);
+		file.write(1);
+		done[index] = true;
+	}
+
+	/** Method read: <br />
+	 * Reads a record of results.
+	 * @param index - position of the configuration in the sweep
+	 * @return the record (see the file format), positioned at the layout index,
+	 * or null if the configuration has no results yet
+	 * @throws IOException - if the file can't be read
+	 */
+	public synchronized ByteBuffer read(int index) throws IOException {
+		if (!done[index]) return null;
+		byte[] bytes = new byte[RECORD];
+		file.seek(HEADER + (long) index * RECORD);
+		file.readFully(bytes);
+		ByteBuffer record = ByteBuffer.wrap(bytes);
+		record.position(DONE + 3);
+		return record;
+	}
+
+	/** Method getConfigs: <br />
+	 * @return the configurations of the sweep, in order
+	 */
+	public List<SweepConfig> getConfigs() {
+		return new ArrayList<SweepConfig>(configs);
+	}
+
+	/** Method close: <br />
+	 * Closes the file
+	 * @throws IOException - if the file can't be closed
+	 */
+	public synchronized void close() throws IOException {
+		file.close();
+	}
+
+	private static void putConfig(ByteBuffer record, SweepConfig config) {
+		record.put((byte) config.getRows()).put((byte) config.getPlayers()).put((byte) config.getTokens());
+		record.put((byte) config.getWinCount()).put((byte) config.getPitMode());
+		record.put((byte) 0).put((byte) 0).put((byte) 0);
+		record.putLong(config.getLayoutIndex());
+	}
+}
@@ -0,0 +1,391 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ai.Bot;
+import ai.BotFactory;
+import application.GameBoard;
+import application.GameRandom;
+import application.NullGameListener;
+
+/** Class Tournament: <br />
+ * Plays bots (see BotFactory) against each other in two player games
+ * and rates them (see EloRatings).  Each round pairs the bots into
+ * matches: every pair of bots (round robin), or bots with similar
+ * scores that have not met yet (Swiss; with an odd number of bots, the
+ * lowest bot without a bye sits the round out and scores half the games of a match).
+ * <br />
+ * A match is gamesPerSeat games for each pit mode with each bot in
+ * each seat.  The two games with the bots swapped are played on the same
+ * pit layout with the same generator, so neither bot gets the better
+ * layout.  Game results depend only on the seed, not on the number of
+ * threads, and every result is written to a checkpoint file (see
+ * TournamentFile) as it comes in; running the tournament again with the
+ * same file plays only the games that are missing.
+ * Usage: Tournament file bots [format] [rounds] [gamesPerSeat] [threads] [seed] [rows] [tokens] [winCount] [pitModes]
+ * where bots is a comma separated list of bot names, format is "rr" (round robin)
+ * or "swiss", and pitModes is a list such as 0-3 or 0,2.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class Tournament {
+	/** Every pair of bots meets every round */
+	public static final int ROUND_ROBIN = 0;
+	/** Bots with similar scores meet */
+	public static final int SWISS = 1;
+
+	private String[] bots;				//bot names
+	private int format;					//ROUND_ROBIN or SWISS
+	private int rounds;
+	private int gamesPerSeat;			//games per pit mode with a bot in a given seat
+	private int rows, tokens, winCount;
+	private int[] pitModes;
+
+	private Map<Long, Result> results;	//finished games by key (see key)
+	private double[] points;			//Swiss points of each bot (wins, half of draws, and byes)
+	private boolean[][] met;			//pairs of bots that have played a match
+	private boolean[] hadBye;			//bots that have sat out a round
+
+	/** Constructor: <br />
+	 * Creates a tournament (nothing is played until run is called).
+	 * @param bots - names of the bots (see BotFactory), at least two
+	 * @param format - ROUND_ROBIN or SWISS
+	 * @param rounds - number of rounds
+	 * @param gamesPerSeat - games per pit mode with each bot in each seat, in each match
+	 * @param rows - number of rows on the board
+	 * @param tokens - tokens for each player
+	 * @param winCount - tokens a player needs in the last column to win
+	 * @param pitModes - pit modes to play
+	 */
+	public Tournament(String[] bots, int format, int rounds, int gamesPerSeat, int rows, int tokens,
+			int winCount, int[] pitModes) {
+		if (bots.length < 2) throw new IllegalArgumentException("A tournament needs at least two bots");
+		for (int i = 0; i < bots.length; i++) {
+			BotFactory.create(bots[i], 0);		//fails early on an unknown name
+		}
+		this.bots = bots.clone();
+		this.format = format;
+		this.rounds = rounds;
+		this.gamesPerSeat = gamesPerSeat;
+		this.rows = rows;
+		this.tokens = tokens;
+		this.winCount = winCount;
+		this.pitModes = pitModes.clone();
+	}
+
+	/** Method run: <br />
+	 * Plays the tournament (or the games missing from the checkpoint)
+	 * and waits for it to finish.
+	 * @param checkpoint - file holding the results so far
+	 * @param threads - number of threads playing games
+	 * @param seed - seed of the tournament
+	 * @return ratings of the bots, in the order of the bot names
+	 * @throws IOException - if the checkpoint can't be used
+	 * @throws InterruptedException - if interrupted while waiting for the games
+	 * @throws ExecutionException - if a game failed
+	 */
+	public EloRatings run(File checkpoint, int threads, final long seed)
+			throws IOException, InterruptedException, ExecutionException {
+		final TournamentFile file = new TournamentFile(checkpoint, seed, getSettings().hashCode());
+		results = new HashMap<Long, Result>();
+		for (Result result : file.getResults()) {
+			results.put(key(result.getRound(), result.getMatch(), result.getGame()), result);
+		}
+		points = new double[bots.length];
+		met = new boolean[bots.length][bots.length];
+		hadBye = new boolean[bots.length];
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (int round = 0; round < rounds; round++) {
+				List<int[]> matches = pair();
+				List<Future<Result>> played = new ArrayList<Future<Result>>();
+				for (int m = 0; m < matches.size(); m++) {
+					int[] pair = matches.get(m);
+					for (int g = 0; g < getGamesPerMatch(); g++) {
+						Result result = results.get(key(round, m, g));
+						if (result != null) {
+							if (result.getBot(g % 2) != pair[0] || result.getBot(1 - g % 2) != pair[1]) {
+								throw new IOException(checkpoint + " holds results of a different tournament");
+							}
+							continue;
+						}
+						final int r = round, match = m, game = g;
+						final int[] seats = (g % 2 == 0) ? pair : new int[] { pair[1], pair[0] };
+						played.add(pool.submit(new Callable<Result>() {
+							public Result call() throws IOException {
+								Result result = playGame(r, match, game, seats, seed);
+								file.write(result);
+								return result;
+							}
+						}));
+					}
+				}
+				for (int i = 0; i < played.size(); i++) {
+					Result result = played.get(i).get();
+					results.put(key(result.getRound(), result.getMatch(), result.getGame()), result);
+				}
+				score(round, matches);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+			file.close();
+		}
+
+		EloRatings ratings = new EloRatings(bots.length);
+		for (Result result : results.values()) {
+			if (result.getRound() >= rounds) continue;
+			int winner = result.getWinningSeat();
+			ratings.addGame(result.getBot(0), result.getBot(1), winner < 0 ? 0.5 : (winner == 0 ? 1 : 0));
+		}
+		return ratings;
+	}
+
+	/** Method pair: <br />
+	 * @return the matches of the next round, as pairs of bots
+	 */
+	private List<int[]> pair() {
+		List<int[]> matches = new ArrayList<int[]>();
+		if (format == ROUND_ROBIN) {
+			for (int a = 0; a < bots.length; a++) {
+				for (int b = a + 1; b < bots.length; b++) {
+					matches.add(new int[] { a, b });
+				}
+			}
+			return matches;
+		}
+
+		//Swiss: best score first (lower index first on a tie)
+		int[] order = new int[bots.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		for (int i = 1; i < order.length; i++) {
+			int bot = order[i];
+			int j = i;
+			while (j > 0 && points[order[j - 1]] < points[bot]) {
+				order[j] = order[j - 1];
+				j--;
+			}
+			order[j] = bot;
+		}
+		boolean[] paired = new boolean[bots.length];
+		if (bots.length % 2 == 1) {
+			int bye = order[order.length - 1];
+			for (int i = order.length - 1; i >= 0; i--) {
+				if (!hadBye[order[i]]) {
+					bye = order[i];
+					break;
+				}
+			}
+			paired[bye] = true;
+			hadBye[bye] = true;
+			points[bye] += getGamesPerMatch() / 2.0;
+		}
+		for (int i = 0; i < order.length; i++) {
+			int a = order[i];
+			if (paired[a]) continue;
+			int b = -1;
+			for (int j = i + 1; j < order.length; j++) {
+				if (paired[order[j]]) continue;
+				if (b < 0) b = order[j];		//a rematch if every bot left has met a
+				if (!met[a][order[j]]) {
+					b = order[j];
+					break;
+				}
+			}
+			paired[a] = true;
+			paired[b] = true;
+			matches.add(new int[] { a, b });
+		}
+		return matches;
+	}
+
+	/** Method score: <br />
+	 * Adds the results of a round to the Swiss points
+	 */
+	private void score(int round, List<int[]> matches) {
+		for (int m = 0; m < matches.size(); m++) {
+			int[] pair = matches.get(m);
+			met[pair[0]][pair[1]] = true;
+			met[pair[1]][pair[0]] = true;
+			for (int g = 0; g < getGamesPerMatch(); g++) {
+				Result result = results.get(key(round, m, g));
+				int winner = result.getWinningSeat();
+				if (winner < 0) {
+					points[pair[0]] += 0.5;
+					points[pair[1]] += 0.5;
+				}
+				else points[result.getBot(winner)]++;
+			}
+		}
+	}
+
+	/** Method playGame: <br />
+	 * Plays one game of a match.  Both seatings of a pair of games get the
+	 * same pit layout and generator.
+	 * @param seats - bot in each seat
+	 * @return the result
+	 */
+	private Result playGame(int round, int match, int game, int[] seats, long seed) {
+		int pitMode = pitModes[game / (2 * gamesPerSeat)];
+		long pairKey = key(round, match, game / 2);
+		GameBoard board = new GameBoard(rows, rows + 3, 2, tokens, winCount, pitMode,
+				new NullGameListener(), GameBoard.PACKED_STORAGE, BatchRunner.gameRandom(seed, pairKey));
+		GameRandom botSeeds = BatchRunner.gameRandom(seed, ~key(round, match, game));
+		Bot[] players = new Bot[2];
+		for (int seat = 0; seat < 2; seat++) {
+			players[seat] = BotFactory.create(bots[seats[seat]], botSeeds.nextLong());
+		}
+		int turns = BatchRunner.playGame(board, players, null);
+		return new Result(round, match, game, seats[0], seats[1], pitMode, board.getWinner(), turns);
+	}
+
+	/** Method getGamesPerMatch: <br />
+	 * @return games played in each match
+	 */
+	public int getGamesPerMatch() {
+		return pitModes.length * 2 * gamesPerSeat;
+	}
+
+	/** Method getSettings: <br />
+	 * @return the settings that decide which games are played, as text.
+	 * The number of rounds is not one of them: a tournament can be given
+	 * more rounds and run again with the same checkpoint.
+	 */
+	public String getSettings() {
+		StringBuilder settings = new StringBuilder();
+		for (int i = 0; i < bots.length; i++) {
+			settings.append(bots[i]).append(',');
+		}
+		settings.append(format).append(' ').append(gamesPerSeat);
+		settings.append(' ').append(rows).append(' ').append(tokens).append(' ').append(winCount);
+		for (int i = 0; i < pitModes.length; i++) {
+			settings.append(' ').append(pitModes[i]);
+		}
+		return settings.toString();
+	}
+
+	/** Method getBots: <br />
+	 * @return names of the bots
+	 */
+	public String[] getBots() {
+		return bots.clone();
+	}
+
+	/** Method key: <br />
+	 * @return a number identifying a game (or pair of games) of the tournament
+	 */
+	private static long key(int round, int match, int game) {
+		return ((long) round << 40) | ((long) match << 20) | game;
+	}
+
+	/** Class Result: <br />
+	 * The result of one game of a tournament
+	 */
+	public static class Result {
+		private int round, match, game;
+		private int[] seats;		//bot in each seat
+		private int pitMode;
+		private int winningSeat;	//-1 if the game was abandoned
+		private int turns;
+
+		/** Constructor: <br />
+		 * @param round - round of the tournament
+		 * @param match - match of the round
+		 * @param game - game of the match
+		 * @param bot0 - bot in seat 0
+		 * @param bot1 - bot in seat 1
+		 * @param pitMode - pit mode of the game
+		 * @param winningSeat - seat that won, -1 if the game was abandoned
+		 * @param turns - turns played
+		 */
+		public Result(int round, int match, int game, int bot0, int bot1, int pitMode, int winningSeat, int turns) {
+			this.round = round;
+			this.match = match;
+			this.game = game;
+			this.seats = new int[] { bot0, bot1 };
+			this.pitMode = pitMode;
+			this.winningSeat = winningSeat;
+			this.turns = turns;
+		}
+
+		public int getRound() {
+			return round;
+		}
+
+		public int getMatch() {
+			return match;
+		}
+
+		public int getGame() {
+			return game;
+		}
+
+		/** Method getBot: <br />
+		 * @return the bot in the seat
+		 */
+		public int getBot(int seat) {
+			return seats[seat];
+		}
+
+		public int getPitMode() {
+			return pitMode;
+		}
+
+		public int getWinningSeat() {
+			return winningSeat;
+		}
+
+		public int getTurns() {
+			return turns;
+		}
+	}
+
+	/** Method main: <br />
+	 * Runs (or resumes) a tournament and prints the ratings.
+	 * @param args file bots [format] [rounds] [gamesPerSeat] [threads] [seed] [rows] [tokens] [winCount] [pitModes]
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Usage: Tournament file bots [rr|swiss] [rounds] [gamesPerSeat] [threads] [seed] "
+					+ "[rows] [tokens] [winCount] [pitModes]");
+			return;
+		}
+		String[] bots = args[1].split(",");
+		int format = (args.length > 2 && args[2].equals("swiss")) ? SWISS : ROUND_ROBIN;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+		int gamesPerSeat = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+		int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+		int rows = args.length > 7 ? Integer.parseInt(args[7]) : 6;
+		int tokens = args.length > 8 ? Integer.parseInt(args[8]) : 4;
+		int winCount = args.length > 9 ? Integer.parseInt(args[9]) : 3;
+		int[] pitModes = args.length > 10 ? SweepConfig.parseValues(args[10])
+				: SweepConfig.range(SweepConfig.MIN_PIT_MODE, SweepConfig.MAX_PIT_MODE);
+		for (int i = 0; i < bots.length; i++) {
+			bots[i] = bots[i].trim();
+		}
+
+		Tournament tournament = new Tournament(bots, format, rounds, gamesPerSeat, rows, tokens, winCount, pitModes);
+		long start = System.nanoTime();
+		EloRatings ratings = tournament.run(new File(args[0]), threads, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println((format == SWISS ? "Swiss" : "Round robin") + ", " + rounds + " rounds, "
+				+ tournament.getGamesPerMatch() + " games per match, board " + rows + " x " + (rows + 3)
+				+ ", tokens: " + tokens + ", to win: " + winCount + " (" + Math.round(seconds * 10) / 10.0 + " s)");
+		ratings.print(System.out, bots);
+	}
+}
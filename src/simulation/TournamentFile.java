@@ -0,0 +1,104 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Class TournamentFile: <br />
+ * The checkpoint of a tournament: a binary file to which the result of
+ * every game is added as soon as the game is over, so that a stopped
+ * tournament can carry on without playing those games again.
+ * <pre>
+ *   header:  int MAGIC, long seed, int hash of the tournament settings
+ *   record:  int round, int match, int game,
+ *            byte bot in seat 0, byte bot in seat 1, byte pit mode, byte winning seat (-1 for none)
+ *            int turns played
+ * </pre>
+ * All numbers are big-endian.  A record cut short (the program stopped
+ * while writing it) is dropped when the file is opened.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class TournamentFile {
+	/** Bytes in the file header */
+	public static final int HEADER = 16;
+	/** Bytes in each record */
+	public static final int RECORD = 20;
+
+	private static final int MAGIC = 0x4848544E;	//"HHTN"
+
+	private RandomAccessFile file;
+	private List<Tournament.Result> results;	//results in the file when it was opened
+
+	/** Constructor: <br />
+	 * Opens the checkpoint of a tournament, creating it if it does not exist.
+	 * An existing file must be for the same tournament.
+	 * @param path - the file
+	 * @param seed - seed of the tournament
+	 * @param settings - hash of the tournament's settings
+	 * @throws IOException - if the file can't be used, or belongs to a different tournament
+	 */
+	public TournamentFile(File path, long seed, int settings) throws IOException {
+		results = new ArrayList<Tournament.Result>();
+		boolean exists = path.exists() && path.length() > 0;
+		file = new RandomAccessFile(path, "rw");
+
+		if (!exists) {
+			file.setLength(0);
+			file.write(ByteBuffer.allocate(HEADER).putInt(MAGIC).putLong(seed).putInt(settings).array());
+			return;
+		}
+
+		byte[] bytes = new byte[HEADER];
+		file.seek(0);
+		file.readFully(bytes);
+		ByteBuffer header = ByteBuffer.wrap(bytes);
+		if (header.getInt() != MAGIC || header.getLong() != seed || header.getInt() != settings) {
+			close();
+			throw new IOException(path + " holds results of a different tournament");
+		}
+		int count = (int) ((file.length() - HEADER) / RECORD);
+		file.setLength(HEADER + (long) count * RECORD);
+		byte[] recordBytes = new byte[RECORD];
+		for (int i = 0; i < count; i++) {
+			file.readFully(recordBytes);
+			ByteBuffer record = ByteBuffer.wrap(recordBytes);
+			results.add(new Tournament.Result(record.getInt(), record.getInt(), record.getInt(),
+					record.get(), record.get(), record.get(), record.get(), record.getInt()));
+		}
+	}
+
+	/** Method getResults: <br />
+	 * @return the results that were in the file when it was opened
+	 */
+	public List<Tournament.Result> getResults() {
+		return new ArrayList<Tournament.Result>(results);
+	}
+
+	/** Method write: <br />
+	 * Adds the result of a game to the end of the file.  Safe to call from several threads.
+	 * @param result - the game
+	 * @throws IOException - if the file can't be written
+	 */
+	public synchronized void write(Tournament.Result result) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(RECORD);
+		record.putInt(result.getRound()).putInt(result.getMatch()).putInt(result.getGame());
+		record.put((byte) result.getBot(0)).put((byte) result.getBot(1));
+		record.put((byte) result.getPitMode()).put((byte) result.getWinningSeat());
+		record.putInt(result.getTurns());
+		file.seek(file.length());
+		file.write(record.array());
+	}
+
+	/** Method close: <br />
+	 * Closes the file
+	 * @throws IOException - if the file can't be closed
+	 */
+	public synchronized void close() throws IOException {
+		file.close();
+	}
+}
@@ -0,0 +1,121 @@
+package simulation;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import application.ConsoleGameListener;
+import application.GameBoard;
+import application.GameListener;
+import application.GameRandom;
+import application.NullGameListener;
+
+/** Class TurnBenchmark: <br />
+ * Plays random games from start to finish and reports how many turns
+ * per second the game board can process.  Every configuration is run
+ * with a ConsoleGameListener (the way the board behaved before 
+ * headless mode, writing to a discarded stream), with a NullGameListener,
+ * and with a NullGameListener on packed board storage.
+ * Usage: TurnBenchmark [games] [rows] [players] [tokens] [winCount] [pitMode]
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class TurnBenchmark {
+	/** Games are abandoned after this many turns (pits can trap the last tokens) */
+	public static final int MAX_TURNS = 5000;
+	
+	private int rows, players, tokens, winCount, pitMode;
+	
+	/** Constructor: <br />
+	 * Creates a benchmark for the given game settings.
+	 */
+	public TurnBenchmark(int rows, int players, int tokens, int winCount, int pitMode) {
+		this.rows = rows;
+		this.players = players;
+		this.tokens = tokens;
+		this.winCount = winCount;
+		this.pitMode = pitMode;
+	}
+	
+	/** Method run: <br />
+	 * Plays the given number of games with the given listener.
+	 * @param games - number of games to play
+	 * @param listener - the listener attached to every board
+	 * @param storage - GameBoard.CELL_STORAGE or GameBoard.PACKED_STORAGE
+	 * @param seed - seed for the boards and the players' choices
+	 * @return turns per second
+	 */
+	public double run(int games, GameListener listener, int storage, long seed) {
+		GameRandom rng = new GameRandom(seed);
+		long turns = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < games; i++) {
+			GameBoard board = new GameBoard(rows, rows + 3, players, tokens, winCount, pitMode, 
+					listener, storage, rng.split());
+			turns += playRandomGame(board, rng);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return turns / seconds;
+	}
+	
+	/** Method playRandomGame: <br />
+	 * Plays a uniformly random legal move (see GameBoard.generateMoves)
+	 * until there is a winner, starting with token placement.
+	 * @param board - a freshly created board
+	 * @param rng - source of the players' choices
+	 * @return number of turns played after placement
+	 */
+	public static int playRandomGame(GameBoard board, Random rng) {
+		int[] moves = new int[board.getMaxMoveCount()];
+		board.setPlacementStage();
+		while (board.getStage() == board.PLACEMENT) {
+			int count = board.generateMoves(moves);
+			board.applyMove(moves[rng.nextInt(count)]);
+		}
+		
+		int firstTurn = board.getTurnCounter();
+		while (board.getStage() == board.PLAY && board.getTurnCounter() - firstTurn < MAX_TURNS) {
+			int count = board.generateMoves(moves);
+			board.applyMove(moves[rng.nextInt(count)]);
+		}
+		return board.getTurnCounter() - firstTurn;
+	}
+	
+	/** Method main: <br />
+	 * Runs the benchmark and prints turns/sec with and without console output.
+	 * @param args [games] [rows] [players] [tokens] [winCount] [pitMode]
+	 */
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+		int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int tokens = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+		int winCount = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+		int pitMode = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+		
+		TurnBenchmark benchmark = new TurnBenchmark(rows, players, tokens, winCount, pitMode);
+		PrintStream discard = new PrintStream(new OutputStream() {
+			public void write(int b) {
+				//discard everything
+			}
+		});
+		
+		//warm up both paths before measuring
+		benchmark.run(games / 10 + 1, new ConsoleGameListener(discard), GameBoard.CELL_STORAGE, 1);
+		benchmark.run(games / 10 + 1, new NullGameListener(), GameBoard.CELL_STORAGE, 1);
+		benchmark.run(games / 10 + 1, new NullGameListener(), GameBoard.PACKED_STORAGE, 1);
+		
+		double console = benchmark.run(games, new ConsoleGameListener(discard), GameBoard.CELL_STORAGE, 42);
+		double headless = benchmark.run(games, new NullGameListener(), GameBoard.CELL_STORAGE, 42);
+		double packed = benchmark.run(games, new NullGameListener(), GameBoard.PACKED_STORAGE, 42);
+		
+		System.out.println("Board: " + rows + " x " + (rows + 3) + ", players: " + players + 
+				", tokens: " + tokens + ", to win: " + winCount + ", pit mode: " + pitMode);
+		System.out.println("Console listener: " + Math.round(console) + " turns/sec");
+		System.out.println("Null listener:    " + Math.round(headless) + " turns/sec");
+		System.out.println("Null listener, packed storage: " + Math.round(packed) + " turns/sec");
+		System.out.println("Speedup:          " + Math.round(headless / console * 100) / 100.0 + "x (headless), " 
+				+ Math.round(packed / console * 100) / 100.0 + "x (headless, packed)");
+	}
+}
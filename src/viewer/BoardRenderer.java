@@ -0,0 +1,114 @@
+package viewer;
+
+import java.io.PrintStream;
+
+import application.GameBoard;
+
+/** Class BoardRenderer: <br />
+ * Draws a game board as text (the layout of GameBoard.printGame)
+ * into a reused buffer, and writes each frame to the stream at once.
+ * <br />
+ * In ANSI mode, the first frame clears the terminal and draws the
+ * whole board at the top; later frames move the cursor to just the
+ * cells that changed and redraw those, then clear everything below
+ * the board so that menus can be printed there.  This assumes nothing
+ * scrolls the board off the top of the screen between frames.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class BoardRenderer {
+	private static final String ESC = "\u001b[";
+	private static final int CELL_WIDTH = 5;		//marker and four characters
+
+	private PrintStream out;			//where frames are written
+	private boolean ansi;				//redraw only changed cells
+	private StringBuilder frame;		//text of the frame being written
+	private StringBuilder cellText;		//text of one cell
+	private char[] shown;				//text of every cell on the screen, ANSI mode
+	private int shownRows, shownCols;	//size of the board on the screen, 0 if nothing is shown
+
+	/** Default Constructor: <br />
+	 * Renders plain text to the console.
+	 */
+	public BoardRenderer() {
+		this(System.out, false);
+	}
+
+	/** Constructor: <br />
+	 * @param out - where frames are written
+	 * @param ansi - true to redraw only the cells that changed (needs an ANSI terminal)
+	 */
+	public BoardRenderer(PrintStream out, boolean ansi) {
+		this.out = out;
+		this.ansi = ansi;
+		frame = new StringBuilder(1024);
+		cellText = new StringBuilder(CELL_WIDTH);
+	}
+
+	/** Method render: <br />
+	 * Writes a frame of the board
+	 * @param board - the board to draw
+	 */
+	public void render(GameBoard board) {
+		frame.setLength(0);
+		if (!ansi) {
+			board.appendGame(frame);
+		}
+		else if (shownRows != board.getRows() || shownCols != board.getCols()) {
+			//nothing on the screen yet (or a different board): draw everything
+			frame.append(ESC).append("2J").append(ESC).append("H");
+			board.appendGame(frame);
+			shownRows = board.getRows();
+			shownCols = board.getCols();
+			shown = new char[shownRows * shownCols * CELL_WIDTH];
+			for (int i = 0; i < shownRows; i++) {
+				for (int j = 0; j < shownCols; j++) {
+					cellChanged(board, i, j);
+				}
+			}
+		}
+		else {
+			for (int i = 0; i < shownRows; i++) {
+				for (int j = 0; j < shownCols; j++) {
+					if (cellChanged(board, i, j)) {
+						//rows of cells are on every other line, after the top border
+						frame.append(ESC).append(2 * i + 2).append(';').append(j * CELL_WIDTH + 1).append('H');
+						frame.append(cellText);
+					}
+				}
+			}
+			frame.append(ESC).append(2 * shownRows + 3).append(";1H").append(ESC).append('J');
+		}
+		out.print(frame);
+		out.flush();
+	}
+
+	/** Method reset: <br />
+	 * Forgets what is on the screen, so that the next ANSI frame is drawn in full
+	 */
+	public void reset() {
+		shownRows = 0;
+		shownCols = 0;
+	}
+
+	/** Method cellChanged: <br />
+	 * Builds the text of a cell and remembers it as shown.
+	 * @return true if it differs from the text shown before
+	 */
+	private boolean cellChanged(GameBoard board, int row, int col) {
+		cellText.setLength(0);
+		cellText.append(row == board.getForwardRow() ? '>' : '*');
+		board.appendCell(cellText, row, col);
+		int start = (row * shownCols + col) * CELL_WIDTH;
+		boolean changed = false;
+		for (int k = 0; k < CELL_WIDTH; k++) {
+			char c = k < cellText.length() ? cellText.charAt(k) : ' ';
+			if (shown[start + k] != c) {
+				shown[start + k] = c;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+}
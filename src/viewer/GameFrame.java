@@ -2,13 +2,37 @@ package viewer;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.*;
 
-import linkedlists.DataStructureException;
-
+import ai.Bot;
+import ai.BotFactory;
+import ai.HintEngine;
+import ai.MctsBot;
+import ai.PonderingBot;
+import ai.WinEstimator;
 import application.*;
 
+/** Class GameFrame: <br />
+ * The game window.  Any seat can be played by a computer player (chosen
+ * on the OptionPanel).  A bot searches on its own thread, on a copy of the
+ * board, so the window keeps drawing and answering clicks while it thinks;
+ * its move is then played on the event thread like a click would be.
+ * Starting a new game calls off a search in progress, and a move that
+ * arrives for an earlier game is thrown away.
+ * Bots that can ponder (see PonderingBot) search the other players'
+ * turns on their own threads, and stop when their turn comes.
+ * The status bar also shows each player's chance of winning, estimated
+ * in the background (see WinEstimator) and shown a few times a second.
+ * The Hint button asks a HintEngine for a move, also off the event thread.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
 
 public class GameFrame extends JFrame implements ActionListener, MouseListener {
 
@@ -26,6 +50,25 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	private JLabel splashLogo;
 	private ViewerCell[][] playBoard;
 	private JTextArea statusBar;
+	private String statusMessage;		//what the status bar says, above the estimate
+	private int[] legalMoves;		//filled by dataBoard.generateMoves
+	
+	/** Shortest time a bot's move takes, in milliseconds, so that people can follow it */
+	public static final long BOT_MOVE_MILLIS = 400;
+	private Bot[] seatBots;				//bot playing each seat, null for a person
+	private ExecutorService[] botThreads;	//thread of each bot, running its searches one at a time
+	private Future<?> botSearch;		//search in progress, or null
+	private Future<?>[] ponders;		//pondering of each seat in progress, or null
+	private int gameNumber;				//counts games started, so moves for old games are ignored
+	
+	/** Milliseconds between showings of the estimate */
+	public static final int ESTIMATE_MILLIS = 250;
+	private WinEstimator estimator;		//each player's chance of winning, worked out in the background
+	private Timer estimateTimer;		//shows the estimate
+	private int shownRollouts;			//rollouts of the estimate last shown
+	
+	private HintEngine hints;			//suggests moves to people
+	private ExecutorService hintThread;	//waits for the hints
 	
 	// this is the initial size of the window
 	private int height = 600;
@@ -70,10 +113,24 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 		playArea.add(splashLogo);
 		add(playArea, BorderLayout.CENTER);
 				
-		statusBar = new JTextArea("Please select your game settings and press the 'Start Game' button.");
+		statusBar = new JTextArea();
 		statusBar.setSize(new Dimension(width, 150));
+		statusBar.setRows(2);
+		statusBar.setEditable(false);
+		setStatus("Please select your game settings and press the 'Start Game' button.");
 		add(statusBar, BorderLayout.SOUTH);
 		
+		estimator = new WinEstimator(Runtime.getRuntime().availableProcessors(), System.nanoTime());
+		estimateTimer = new Timer(ESTIMATE_MILLIS, new ActionListener() {
+			public void actionPerformed(ActionEvent ae) {
+				showEstimate();
+			}
+		});
+		estimateTimer.start();
+		
+		hints = new HintEngine(System.nanoTime());
+		hintThread = newDaemonThread("hint");
+		
 		setVisible(true);
 	}
 	
@@ -88,11 +145,25 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 				"\nGame Size: " + optionPanel.getBoardSize() + " x " + (optionPanel.getBoardSize() + 3));
 		
 		playArea.removeAll();
+		stopBots();
 		
 		dataBoard = new GameBoard(optionPanel.getBoardSize(), optionPanel.getBoardSize() + 3, 
-				optionPanel.getPlayerCount(), optionPanel.getTokenCount(), optionPanel.getWinCount(), optionPanel.getMode());
+				optionPanel.getPlayerCount(), optionPanel.getTokenCount(), optionPanel.getWinCount(), optionPanel.getMode(),
+				new SwingGameListener());
 		
 		dataBoard.printGame();
+		legalMoves = new int[dataBoard.getMaxMoveCount()];
+		
+		seatBots = new Bot[dataBoard.getPlayerCount()];
+		botThreads = new ExecutorService[seatBots.length];
+		ponders = new Future<?>[seatBots.length];
+		GameRandom seeds = new GameRandom();
+		for (int i = 0; i < seatBots.length; i++) {
+			if (!optionPanel.getSeat(i).equals(OptionPanel.HUMAN)) {
+				seatBots[i] = BotFactory.create(optionPanel.getSeat(i), seeds.nextLong());
+				botThreads[i] = newDaemonThread("bot");
+			}
+		}
 		
 		//Instantiate the grid of viewable cells
 		playBoard = new ViewerCell[dataBoard.getRows()][dataBoard.getCols()];
@@ -119,11 +190,242 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 		drawBoard();
 		add(playArea, BorderLayout.CENTER);
 		dataBoard.setPlacementStage();
-		statusBar.setText(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
-				+ ", place your hedgehog somewhere in the first column");
+		optionPanel.getSkipSideButton().setVisible(false);
 		pack();
 		setVisible(true);
+		beginPlacementTurn();
+	}
+	
+	/** Method newDaemonThread: <br />
+	 * @param name - name of the thread
+	 * @return an executor running tasks one at a time on a thread that
+	 * does not keep the program running
+	 */
+	private static ExecutorService newDaemonThread(final String name) {
+		return Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/** Method stopBots: <br />
+	 * Calls off the searches in progress, if any, and makes sure no move
+	 * of the current game is played from now on.  Each bot of the game
+	 * is closed, and its thread ended, once the thread is done with it.
+	 */
+	private void stopBots() {
+		gameNumber++;
+		if (botSearch != null) {
+			botSearch.cancel(true);
+			botSearch = null;
+		}
+		if (seatBots != null) {
+			for (int i = 0; i < seatBots.length; i++) {
+				if (ponders[i] != null) ponders[i].cancel(true);
+				if (seatBots[i] == null) continue;
+				final Bot oldBot = seatBots[i];
+				botThreads[i].submit(new Runnable() {
+					public void run() {
+						if (oldBot instanceof MctsBot) ((MctsBot) oldBot).close();
+					}
+				});
+				botThreads[i].shutdown();
+			}
+			seatBots = null;
+		}
+	}
+	
+	/** Method newPosition: <br />
+	 * Called whenever a player is about to choose a move (or the game
+	 * has ended): starts the bots pondering and the estimate of the position.
+	 */
+	private void newPosition() {
+		startPondering();
+		if (dataBoard.getStage() == dataBoard.GAME_OVER) {
+			estimator.stop();
+		}
+		else {
+			estimator.start(dataBoard);
+		}
+		shownRollouts = -1;
+		showEstimate();
+		optionPanel.getHintButton().setVisible(dataBoard.getStage() != dataBoard.GAME_OVER && !isBotTurn());
+	}
+	
+	/** Method startHint: <br />
+	 * Asks the hint engine for a move for the current player.  The hint
+	 * is shown when it arrives, if the position is still the same.
+	 */
+	private void startHint() {
+		final GameBoard position = dataBoard.copy(new NullGameListener(), new GameRandom());
+		final long hash = dataBoard.getHash();
+		final int game = gameNumber;
+		hintThread.submit(new Runnable() {
+			public void run() {
+				final int move = hints.suggestMove(position, HintEngine.HINT_MILLIS);
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						if (game == gameNumber && hash == dataBoard.getHash()) showHint(move);
+					}
+				});
+			}
+		});
+	}
+	
+	/** Method showHint: <br />
+	 * Tells the current player which move is suggested, and outlines its cell.
+	 * @param move - encoded move (see Move)
+	 */
+	private void showHint(int move) {
+		if (move == Move.NONE) return;
+		setStatus(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer()) 
+				+ ", hint: " + Move.toString(move));
+		if (Move.getType(move) != Move.SKIP_SIDE) {
+			playBoard[Move.getRow(move)][Move.getCol(move)].setHiLiteBorder(Color.yellow);
+			playBoard[Move.getRow(move)][Move.getCol(move)].repaint();
+		}
+	}
+	
+	/** Method setStatus: <br />
+	 * Changes the message in the status bar, keeping the estimate below it.
+	 * @param message - the message
+	 */
+	private void setStatus(String message) {
+		statusMessage = message;
+		shownRollouts = -1;
+		showEstimate();
+	}
+	
+	/** Method showEstimate: <br />
+	 * Shows the message and each player's chance of winning (with its 95%
+	 * confidence interval) in the status bar, if the estimate has changed
+	 * since it was last shown.  Called by estimateTimer, so the status bar
+	 * is redrawn a few times a second however fast the estimate grows.
+	 */
+	private void showEstimate() {
+		if (dataBoard == null || dataBoard.getStage() == dataBoard.GAME_OVER) {
+			if (shownRollouts != 0) statusBar.setText(statusMessage);
+			shownRollouts = 0;
+			return;
+		}
+		WinEstimator.Estimate estimate = estimator.getEstimate();
+		if (estimate == null || estimate.getRollouts() == shownRollouts) return;
+		shownRollouts = estimate.getRollouts();
 		
+		StringBuilder text = new StringBuilder(statusMessage);
+		text.append("\nChances to win:");
+		for (int p = 0; p < dataBoard.getPlayerCount(); p++) {
+			text.append(String.format("  %s %.0f%% (%.0f-%.0f%%)", dataBoard.getTracker().getPlayerColorName(p),
+					100 * estimate.getWinRate(p), 100 * estimate.getLower(p), 100 * estimate.getUpper(p)));
+		}
+		text.append(String.format("   [%d playouts]", estimate.getRollouts()));
+		statusBar.setText(text.toString());
+	}
+	
+	/** Method startPondering: <br />
+	 * Called whenever a player is about to choose a move.  Every bot that
+	 * can ponder, other than the current player's, starts searching the
+	 * position on its own thread (calling off what it pondered before);
+	 * the current player's bot stops pondering.  Nobody ponders once the
+	 * game is over.
+	 */
+	private void startPondering() {
+		for (int i = 0; i < seatBots.length; i++) {
+			if (ponders[i] != null) {
+				ponders[i].cancel(true);
+				ponders[i] = null;
+			}
+			if (!(seatBots[i] instanceof PonderingBot) || i == dataBoard.getCurrentPlayer()
+					|| dataBoard.getStage() == dataBoard.GAME_OVER) continue;
+			
+			final PonderingBot bot = (PonderingBot) seatBots[i];
+			final GameBoard position = dataBoard.copy(new NullGameListener(), new GameRandom());
+			final int seat = i;
+			ponders[i] = botThreads[i].submit(new Runnable() {
+				public void run() {
+					bot.ponder(position, seat);
+				}
+			});
+		}
+	}
+	
+	/** Method isBotTurn: <br />
+	 * @return true if a bot plays the current player (people can't move for it)
+	 */
+	private boolean isBotTurn() {
+		return seatBots != null && dataBoard.getStage() != dataBoard.GAME_OVER
+				&& seatBots[dataBoard.getCurrentPlayer()] != null;
+	}
+	
+	/** Method startBotMove: <br />
+	 * Starts the current player's bot searching for a move on a copy of 
+	 * the board.  The move is played on the event thread when it is found,
+	 * unless a new game was started in the meantime.
+	 */
+	private void startBotMove() {
+		final Bot bot = seatBots[dataBoard.getCurrentPlayer()];
+		final GameBoard position = dataBoard.copy(new NullGameListener(), new GameRandom());
+		final int game = gameNumber;
+		setStatus(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
+				+ " (" + bot.getName() + ") is thinking...");
+		
+		botSearch = botThreads[dataBoard.getCurrentPlayer()].submit(new Runnable() {
+			public void run() {
+				long start = System.currentTimeMillis();
+				int[] moves = new int[position.getMaxMoveCount()];
+				int count = position.generateMoves(moves);
+				final int move = bot.chooseMove(position, moves, count);
+				try {
+					long left = BOT_MOVE_MILLIS - (System.currentTimeMillis() - start);
+					if (left > 0) Thread.sleep(left);
+				}
+				catch (InterruptedException ie) {
+					return;			//called off by a new game
+				}
+				if (Thread.currentThread().isInterrupted()) return;
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						if (game == gameNumber) playBotMove(move);
+					}
+				});
+			}
+		});
+	}
+	
+	/** Method playBotMove: <br />
+	 * Plays a move chosen by a bot, on the event thread.
+	 * @param move - encoded move (see Move)
+	 */
+	private void playBotMove(int move) {
+		botSearch = null;
+		System.out.println(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
+				+ " (" + seatBots[dataBoard.getCurrentPlayer()].getName() + "): " + Move.toString(move));
+		switch (Move.getType(move)) {
+		case Move.PLACE: placeToken(Move.getRow(move)); break;
+		case Move.SKIP_SIDE: 
+			dataBoard.applyMove(move);
+			forwardMoveStage();
+			break;
+		default: playMove(move);
+		}
+		playArea.repaint();
+	}
+	
+	/** Method beginPlacementTurn: <br />
+	 * Asks the current player to place a token, or lets its bot place it.
+	 */
+	private void beginPlacementTurn() {
+		newPosition();
+		if (isBotTurn()) {
+			startBotMove();
+		}
+		else {
+			setStatus(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
+					+ ", place your hedgehog somewhere in the first column");
+		}
 	}
 	
 	/** Method beginMovementTurn: <br />
@@ -142,24 +444,37 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 					"You win all the cake!");
 			
 			dataBoard.setGameOver();
+			newPosition();		//stops all pondering and the estimate
 			optionPanel.getSkipSideButton().setVisible(false);
 			
-			statusBar.setText("The game is now over.  Click \"New Game\" to play again.");
+			setStatus("The game is now over.  Click \"New Game\" to play again.");
 		}	
+		else if (isBotTurn()) {
+			
+			newPosition();
+			
+			optionPanel.getSkipSideButton().setVisible(false);
+			
+			drawBoard();
+			
+			highlightForwardRow();
+			
+			startBotMove();
+		}
 		else {
 			
+			newPosition();
+			
 			optionPanel.getSkipSideButton().setVisible(true);
 			
-			statusBar.setText(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
+			setStatus(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
 					+ ", make your move.");
 			
 			drawBoard();
 			
 			highlightForwardRow();
 			
-			highlightPlayerMoves();
-			
-			highlightForwardMoves();
+			highlightLegalMoves();
 		}
 	}
 	
@@ -169,7 +484,7 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	 */
 	private void highlightForwardRow() {
 		for (int i = 0; i < dataBoard.getCols(); i++) {
-			if (dataBoard.getCell(dataBoard.getForwardRow(), i).isEnabled()) {
+			if (dataBoard.isCellEnabled(dataBoard.getForwardRow(), i)) {
 				playBoard[dataBoard.getForwardRow()][i].setBackground(Color.lightGray);
 				playBoard[dataBoard.getForwardRow()][i].setHiLiteBorder(dataBoard.getTracker().getPlayerColor(dataBoard.getCurrentPlayer()));
 			}
@@ -185,7 +500,7 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 		for (int i = 0; i < dataBoard.getRows(); i++) {
 			for (int j = 0; j < dataBoard.getCols(); j++) {
 				//draw cells as standard, pits, or finished
-				if (dataBoard.getCell(i, j).isEnabled()) {
+				if (dataBoard.isCellEnabled(i, j)) {
 					if (j == dataBoard.getCols() - 1) {
 						playBoard[i][j].setBackground(Color.darkGray);	//finished cells
 						playBoard[i][j].setBackgroundImage(dataBoard.FINISHED);
@@ -207,28 +522,31 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 		}
 	}
 	
-	/** Method highlightPlayerMoves: <br />
-	 * Highlights the moves allowed by the current player,
-	 * enables the buttons for allowed token movements.
+	/** Method highlightLegalMoves: <br />
+	 * Enables the buttons for every move the board allows right now:
+	 * side moves of the current player's tokens (until a side move is made)
+	 * and forward moves out of the forward row.
 	 */
-	private void highlightPlayerMoves() {
-		int playerID = dataBoard.getCurrentPlayer();
-		for (int i = 0; i < dataBoard.getTracker().getTokenCount(); i++) {
-			if (dataBoard.getTracker().getTokensForPlayer(playerID)[i].isEnabled()) {
-				int row = dataBoard.getTracker().getTokensForPlayer(playerID)[i].getLocationRow();
-				int col = dataBoard.getTracker().getTokensForPlayer(playerID)[i].getLocationCol();
-				if (row > 0) playBoard[row][col].enableMoveUp();
-				if (row < dataBoard.getRows() - 1) playBoard[row][col].enableMoveDown();
-				if (row == dataBoard.getForwardRow()) playBoard[row][col].enableMoveForward();
-				
-				playBoard[row][col].repaint();
+	private void highlightLegalMoves() {
+		int count = dataBoard.generateMoves(legalMoves);
+		for (int i = 0; i < count; i++) {
+			int row = Move.getRow(legalMoves[i]);
+			int col = Move.getCol(legalMoves[i]);
+			switch (Move.getType(legalMoves[i])) {
+			case Move.UP: playBoard[row][col].enableMoveUp(); break;
+			case Move.DOWN: playBoard[row][col].enableMoveDown(); break;
+			case Move.FORWARD: playBoard[row][col].enableMoveForward(); break;
 			}
+			playBoard[row][col].repaint();
 		}
+		playArea.repaint();
 	}
 	
 	/** Method forwardMoveStage: <br />
 	 * disables all moves and repaints the board, 
 	 * then highlights only the forward movable tokens.
+	 * If the board already ended the turn (nothing could move forward),
+	 * starts the next turn instead.
 	 */
 	private void forwardMoveStage() {
 		
@@ -239,39 +557,36 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 			}
 		}
 		
-		PlayerToken[] forwardToken;				//get forward movable tokens
-		if ( dataBoard.sideWasMoved() && ! dataBoard.forwardWasMoved() ) {
-			playArea.repaint();
-			forwardToken = dataBoard.getTokensFromForwardRow();
-			if (forwardToken.length == 0) {
-				dataBoard.updateTurnCounter();	//end the turn
-				beginMovementTurn();			//start a new turn
-			}
-			else {
-				highlightForwardMoves();			//allow new forward moves
-				playArea.repaint();
-			}
+		if ( dataBoard.getStage() == dataBoard.PLAY && dataBoard.sideWasMoved() ) {
+			newPosition();
+			if (isBotTurn()) startBotMove();	//the bot makes its forward move
+			else highlightLegalMoves();			//allow new forward moves
+		}
+		else {
+			beginMovementTurn();			//start a new turn
 		}
 	}
 	
-	
-	
-	/** Method highlightForwardRow: <br />
-	 * Highlights and enables tokens that can move forward.
+	/** Method playMove: <br />
+	 * Makes a side or forward move on the dataBoard and mirrors it
+	 * on the gui gameBoard, then moves on to the next part of the turn.
+	 * @param move - encoded move (see Move)
 	 */
-	private void highlightForwardMoves() {
-		PlayerToken[] forwardToken;
-		forwardToken = dataBoard.getTokensFromForwardRow();
+	private void playMove(int move) {
+		int row = Move.getRow(move);
+		int col = Move.getCol(move);
+		PlayerToken tokenToMove = dataBoard.topTokenOrNull(row, col);
+		if (tokenToMove != null && dataBoard.applyMove(move)) {
+			this.moveTokenView(row, col, tokenToMove.getLocationRow(), tokenToMove.getLocationCol());
+		}
+		else {
+			JOptionPane.showMessageDialog(null, Move.toString(move) + ": move not allowed");
+		}
 		
-		for (int i = 0; i < forwardToken.length; i++) {					
-			if (forwardToken[i].isEnabled()) {
-				int row = forwardToken[i].getLocationRow();
-				int col = forwardToken[i].getLocationCol();
-				playBoard[row][col].enableMoveForward();
-				playArea.repaint();
-			}
+		if (Move.getType(move) == Move.FORWARD) {
+			beginMovementTurn();	//the turn was updated by the forward move
 		}
-			
+		else forwardMoveStage();
 	}
 	
 	/** Method moveTokenView: <br />
@@ -283,13 +598,13 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	 * @param endCol    int ending column location
 	 */
 	private void moveTokenView(int startRow, int startCol, int endRow, int endCol) {
-		try {
-			//update starting cell image
-			playBoard[startRow][startCol].setCellImage(dataBoard.getCell(startRow, startCol).peek().getPlayerImage());
+		//update starting cell image
+		PlayerToken top = dataBoard.topTokenOrNull(startRow, startCol);
+		if (top != null) {
+			playBoard[startRow][startCol].setCellImage(top.getPlayerImage());
 		}
-		catch (DataStructureException dse) {
+		else {
 			playBoard[startRow][startCol].resetCellImage();
-			
 		}
 		
 		//reset hidden color
@@ -298,10 +613,11 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 		
 		
 		//update end cell image
-		try {
-			playBoard[endRow][endCol].setCellImage(dataBoard.getCell(endRow, endCol).peek().getPlayerImage());
+		top = dataBoard.topTokenOrNull(endRow, endCol);
+		if (top != null) {
+			playBoard[endRow][endCol].setCellImage(top.getPlayerImage());
 		}
-		catch (DataStructureException dse) {
+		else {
 			playBoard[startRow][startCol].resetCellImage();
 			System.out.println("Something bad happened");
 		}
@@ -318,13 +634,9 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	 * @param col int the column of the cell to update
 	 */
 	private void setHiddenColor(int row, int col) {
-		try {
-			if (dataBoard.getCell(row, col).getNumberOfItems() > 1) {
-				playBoard[row][col].setHiddenColor(dataBoard.getCell(row, col).peekNext().getData().getPlayerColor());
-			}
-		}
-		catch (DataStructureException dse) {
-			playBoard[row][col].setHiddenColor(Color.lightGray);
+		PlayerToken hidden = dataBoard.getCell(row, col).peekAt(1);
+		if (hidden != null) {
+			playBoard[row][col].setHiddenColor(hidden.getPlayerColor());
 		}
 		playBoard[row][col].repaint();
 	}
@@ -349,9 +661,13 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 			optionPanel.getStartButton().setText("New Game");
 		}
 		
-		if (ae.getSource() == optionPanel.getSkipSideButton()) {
-			if ( ! dataBoard.sideWasMoved() && ! dataBoard.forwardWasMoved() ) {
-				dataBoard.setSideMoved();
+		if (ae.getSource() == optionPanel.getHintButton() && !isBotTurn()
+				&& dataBoard.getStage() != dataBoard.GAME_OVER) {
+			startHint();
+		}
+		
+		if (ae.getSource() == optionPanel.getSkipSideButton() && !isBotTurn()) {
+			if ( dataBoard.applyMove(Move.skipSide()) ) {
 				System.out.println("Side Move Skipped");
 				forwardMoveStage();
 			}
@@ -362,56 +678,15 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 			for (int i = 0; i < dataBoard.getRows(); i++) {
 				for (int j = 0; j <  dataBoard.getCols(); j++) {
 					if (ae.getSource() == playBoard[i][j].getUpButton()) {
-						//token has been moved
-						try {
-							PlayerToken tokenToMove;
-							tokenToMove = dataBoard.getCell(i, j).peek();
-							dataBoard.moveTokenUp(i, j);
-							this.moveTokenView(i, j, tokenToMove.getLocationRow(), tokenToMove.getLocationCol());
-						}
-						catch (InvalidCellActionException ica) {
-							JOptionPane.showMessageDialog(null, ica.getMessage());
-						}
-						catch (DataStructureException dse) {
-							JOptionPane.showMessageDialog(null, dse.getMessage());
-						}
-						forwardMoveStage();
+						playMove(Move.encode(Move.UP, i, j));
 					}
 					
 					if (ae.getSource() == playBoard[i][j].getDownButton()) {
-						//token has been moved
-						try {
-							PlayerToken tokenToMove;
-							tokenToMove = dataBoard.getCell(i, j).peek();
-							dataBoard.moveTokenDown(i, j);
-							this.moveTokenView(i, j, tokenToMove.getLocationRow(), tokenToMove.getLocationCol());
-						}
-						catch (InvalidCellActionException ica) {
-							JOptionPane.showMessageDialog(null, ica.getMessage());
-						}
-						catch (DataStructureException dse) {
-							JOptionPane.showMessageDialog(null, dse.getMessage());
-						}
-						forwardMoveStage();
+						playMove(Move.encode(Move.DOWN, i, j));
 					}
 					
 					if (ae.getSource() == playBoard[i][j].getForwardButton()) {		
-						if (!dataBoard.sideWasMoved()) dataBoard.setSideMoved();
-						//token has been moved
-						try {
-							PlayerToken tokenToMove;
-							tokenToMove = dataBoard.getCell(i, j).peek();
-							dataBoard.moveTokenForward(i, j);	//turn is updated here
-							this.moveTokenView(i, j, tokenToMove.getLocationRow(), tokenToMove.getLocationCol());
-						}
-						catch (InvalidCellActionException ica) {
-							JOptionPane.showMessageDialog(null, ica.getMessage());
-						}
-						catch (DataStructureException dse) {
-							JOptionPane.showMessageDialog(null, dse.getMessage());
-						}
-						//start a new turn
-						beginMovementTurn();
+						playMove(Move.encode(Move.FORWARD, i, j));
 					}
 				}
 			}
@@ -425,39 +700,48 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	 * by clicking directly on the desired cell.
 	 */
 	public void mouseClicked(MouseEvent me) {
-		if (dataBoard.getStage() == dataBoard.PLACEMENT) {	//if we're in the placement stage, do this
+		if (dataBoard.getStage() == dataBoard.PLACEMENT && !isBotTurn()) {	//if we're in the placement stage, do this
 			for (int i = 0; i < dataBoard.getRows(); i++) {
-				//If the cell isn't empty, set the hidden player indicator to the current color
 				if (me.getSource() == playBoard[i][0]) {
-					//If token placement was successful
-					if (dataBoard.stackToken(i, 0, dataBoard.getTracker().getTokensForPlayer(dataBoard.getCurrentPlayer())[dataBoard.getCurrentRound()])) {
-						this.setHiddenColor(i, 0);
-						playBoard[i][0].setStdBorder();
-						//update the turn counter
-						dataBoard.updateTurnCounter();
-						statusBar.setText(dataBoard.getTracker().getPlayerColorName(dataBoard.getCurrentPlayer())
-								+ ", place your hedgehog somewhere in the first column");
-						//check if all tokens have been placed, if so, set to the movement
-						if ( ! (dataBoard.getCurrentRound() < dataBoard.getTracker().getTokenCount()) ) {
-							dataBoard.setGameStage();
-							beginMovementTurn();
-						}
-					}
-					else { //token placement failed
-						System.out.println("\007");
-						statusBar.setText("Error: can't stack a hedgehog that high yet!");
-					}
-					//display the current player's token
-					try {
-						playBoard[i][0].setCellImage(dataBoard.getCell(i, 0).peek().getPlayerImage());
-					}
-					catch (DataStructureException dse) {
-						JOptionPane.showMessageDialog(null, "Error: cell is empty (even though there should be something there.");
-					}
+					placeToken(i);
 				}
 			}
 		}
 	}
+	
+	/** Method placeToken: <br />
+	 * Places a token of the current player in the first column, 
+	 * then moves on to the next placement or to the movement stage.
+	 * @param row - the row to place the token in
+	 */
+	private void placeToken(int row) {
+		//If token placement was successful
+		//(the board updates the turn counter and the stage)
+		if (dataBoard.applyMove(Move.encode(Move.PLACE, row, 0))) {
+			//If the cell isn't empty, set the hidden player indicator to the current color
+			this.setHiddenColor(row, 0);
+			playBoard[row][0].setStdBorder();
+			//check if all tokens have been placed, if so, start the movement
+			if (dataBoard.getStage() == dataBoard.PLAY) {
+				beginMovementTurn();
+			}
+			else {
+				beginPlacementTurn();
+			}
+		}
+		else { //token placement failed
+			System.out.println("\007");
+			setStatus("Error: can't stack a hedgehog that high yet!");
+		}
+		//display the current player's token
+		PlayerToken top = dataBoard.topTokenOrNull(row, 0);
+		if (top != null) {
+			playBoard[row][0].setCellImage(top.getPlayerImage());
+		}
+		else {
+			JOptionPane.showMessageDialog(null, "Error: cell is empty (even though there should be something there.");
+		}
+	}
 
 	@Override
 	/** Method mouseEntered: <br />
@@ -468,21 +752,16 @@ public class GameFrame extends JFrame implements ActionListener, MouseListener {
 	 * and allow tokens to be placed.
 	 */
 	public void mouseEntered(MouseEvent me) {
-		if (dataBoard.getStage() == dataBoard.PLACEMENT) {
-			//Start with an arbitrarily high number
-			int lowestCount = dataBoard.getTracker().getTokenCount() * dataBoard.getTracker().getPlayerCount();
-			
-			//find the smallest stack
-			for (int i = 0; i < dataBoard.getRows(); i++) {				
-				lowestCount = Math.min(lowestCount, dataBoard.getCell(i, 0).getNumberOfItems());
-			}
+		if (dataBoard.getStage() == dataBoard.PLACEMENT && !isBotTurn()) {
+			//the smallest stack in the first column
+			int lowestCount = dataBoard.getMinFirstColumnHeight();
 			
 			//compare the current stack to the lowest stack.
 			//If the current stack is not bigger than the smallest stack,
 			//you can place a token there (it gets highlighted)
 			for (int i = 0; i < dataBoard.getRows(); i++) {
 				if (me.getSource() == playBoard[i][0]) {
-					if (! (dataBoard.getCell(i, 0).getNumberOfItems() > lowestCount) )
+					if (! (dataBoard.getStackCount(i, 0) > lowestCount) )
 						playBoard[i][0].setHiLiteBorder(dataBoard.getTracker().getPlayerColor(dataBoard.getCurrentPlayer()));
 				}
 			}
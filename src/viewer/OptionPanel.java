@@ -1,11 +1,16 @@
 package viewer;
 
+import java.awt.*;
 import java.awt.event.*;
 
 import javax.swing.*;
 
+import ai.BotFactory;
+
 /** Class OptionPanel: <br />
  * Creates a JPanel containing drop down menus and gameboard interaction buttons.
+ * The second row chooses who plays each seat: a person, or one of the
+ * computer players of BotFactory.
  * @author Joshua Kovach
  * @version 1.0
  *
@@ -37,37 +42,50 @@ public class OptionPanel extends JPanel implements ActionListener {
 	private JComboBox modeSelect;								//drop down menu for pit mode
 	private String[] modes = { "Pits", "Black Holes", "Worm Holes", "Origin" };	//content of drop down menu
 	
+	/** Choice of a seat played by a person */
+	public static final String HUMAN = "Human";
+	private JPanel settingsRow;									//game settings and buttons
+	private JPanel seatRow;										//who plays each seat
+	private JLabel[] seatLabels;								//Seat number
+	private JComboBox[] seatSelect;								//drop down menu for each seat
+	
 	/* buttons for creating the game and some game options */
 	private JButton startButton;			//Start Game or New Game
 	private JButton skipSideButton;			//Skip Side Step
+	private JButton hintButton;				//Suggest a move
 	
 	/** Constructor: <br />
 	 * Sets up the drop-down menus and the buttons
 	 * in the option panel
 	 */
 	public OptionPanel() {
-		super();
+		super(new GridLayout(2, 1));
+		settingsRow = new JPanel();
+		seatRow = new JPanel();
+		add(settingsRow);
+		add(seatRow);
 		
 		//add player count selection box
 		playerSelectLabel = new JLabel("Players:");
 		playerSelect = new JComboBox(playerCounts);
-		add(playerSelectLabel);
-		add(playerSelect);
+		playerSelect.addActionListener(this);
+		settingsRow.add(playerSelectLabel);
+		settingsRow.add(playerSelect);
 		
 		//add token count selection box
 		tokenSelectLabel = new JLabel("Tokens: ");
 		tokenSelect = new JComboBox(tokenCounts);
 		tokenSelect.addActionListener(this);
 		tokenSelect.setSelectedItem(4);				//default token count
-		add(tokenSelectLabel);
-		add(tokenSelect);
+		settingsRow.add(tokenSelectLabel);
+		settingsRow.add(tokenSelect);
 		
 		//add win count selection box
 		winSelectLabel = new JLabel("To win: ");
 		winSelect = new JComboBox(winCounts);
 		winSelect.setSelectedItem(3);				//default win condition
-		add(winSelectLabel);
-		add(winSelect);
+		settingsRow.add(winSelectLabel);
+		settingsRow.add(winSelect);
 		
 		//add game board size selection box
 		sizeSelectLabel = new JLabel("Board Size: ");
@@ -75,27 +93,58 @@ public class OptionPanel extends JPanel implements ActionListener {
 		sizeSelect.setSelectedItem(6);				//default game size
 		sizeSelect.addActionListener(this);
 		sizeQualifier = new JLabel("x " + ((Integer)sizeSelect.getSelectedItem() + 3));
-		add(sizeSelectLabel);
-		add(sizeSelect);
-		add(sizeQualifier);
+		settingsRow.add(sizeSelectLabel);
+		settingsRow.add(sizeSelect);
+		settingsRow.add(sizeQualifier);
 		
 		//add mode selection boxes
 		modeSelectLabel = new JLabel("Pit Mode: ");
 		modeSelect = new JComboBox(modes);
 		modeSelect.setSelectedItem("Pits");
-		add(modeSelectLabel);
-		add(modeSelect);
+		settingsRow.add(modeSelectLabel);
+		settingsRow.add(modeSelect);
 		
 		/* No default action listener
 		 * must be added to interact with items beyond 
 		 * scope of this class.
 		 */
 		startButton = new JButton("Start Game");
-		add(startButton);
+		settingsRow.add(startButton);
 		
 		skipSideButton = new JButton("Skip Side Move");
 		skipSideButton.setVisible(false);
-		add(skipSideButton);
+		settingsRow.add(skipSideButton);
+		
+		hintButton = new JButton("Hint");
+		hintButton.setVisible(false);
+		settingsRow.add(hintButton);
+		
+		//add a person or bot selection box for each seat
+		String[] seatChoices = new String[BotFactory.NAMES.length + 1];
+		seatChoices[0] = HUMAN;
+		System.arraycopy(BotFactory.NAMES, 0, seatChoices, 1, BotFactory.NAMES.length);
+		int maxSeats = playerCounts[playerCounts.length - 1];
+		seatLabels = new JLabel[maxSeats];
+		seatSelect = new JComboBox[maxSeats];
+		for (int i = 0; i < maxSeats; i++) {
+			seatLabels[i] = new JLabel("Seat " + (i + 1) + ":");
+			seatSelect[i] = new JComboBox(seatChoices);
+			seatRow.add(seatLabels[i]);
+			seatRow.add(seatSelect[i]);
+		}
+		showSeats();
+	}
+	
+	/** Method showSeats: <br />
+	 * Shows the seat selection boxes of the selected number of players
+	 * and hides the rest.
+	 */
+	private void showSeats() {
+		for (int i = 0; i < seatSelect.length; i++) {
+			seatLabels[i].setVisible(i < getPlayerCount());
+			seatSelect[i].setVisible(i < getPlayerCount());
+		}
+		seatRow.revalidate();
 	}
 
 	/** Method addStartButtonListener: <br />
@@ -106,6 +155,7 @@ public class OptionPanel extends JPanel implements ActionListener {
 	public void addStartButtonListener(ActionListener al) {
 		startButton.addActionListener(al);
 		skipSideButton.addActionListener(al);
+		hintButton.addActionListener(al);
 	}
 	
 	/** Method getStartButton(): <br />
@@ -122,6 +172,13 @@ public class OptionPanel extends JPanel implements ActionListener {
 		return skipSideButton;
 	}
 	
+	/** Method getHintButton: <br />
+	 * @return Hint button (for source tracking)
+	 */
+	public JButton getHintButton() {
+		return hintButton;
+	}
+	
 	/** Method getPlayerCount(): <br />
 	 * @return int number of players selected
 	 */
@@ -162,6 +219,14 @@ public class OptionPanel extends JPanel implements ActionListener {
 		return modeSelect.getSelectedIndex();
 	}
 	
+	/** Method getSeat: <br />
+	 * @param seat - playerID of the seat
+	 * @return HUMAN, or the BotFactory name of the bot that plays the seat
+	 */
+	public String getSeat(int seat) {
+		return (String) seatSelect[seat].getSelectedItem();
+	}
+	
 	/** Method ActionPerformed(): <br />
 	 * listens for changes to update on the various option boxes
 	 */
@@ -174,6 +239,10 @@ public class OptionPanel extends JPanel implements ActionListener {
 			winSelect.setModel(new DefaultComboBoxModel(winCounts));
 		}
 		
+		if (ae.getSource() == playerSelect) {
+			showSeats();
+		}
+		
 		if (ae.getSource() == sizeSelect) {
 			sizeQualifier.setText("x " + ((Integer)sizeSelect.getSelectedItem() + 3));
 		}
@@ -0,0 +1,23 @@
+package viewer;
+
+import javax.swing.JOptionPane;
+
+import application.ConsoleGameListener;
+
+/** Class SwingGameListener: <br />
+ * Game listener for the game window.  Logs events to the console
+ * like the text client, but tells players that they can no longer 
+ * win with a dialog box.
+ * @author Joshua Kovach
+ * @version 1.0
+ *
+ */
+public class SwingGameListener extends ConsoleGameListener {
+	
+	/** Method playerCannotWin: <br />
+	 * Shows a message dialog for the player that lost.
+	 */
+	public void playerCannotWin(int playerID, String colorName) {
+		JOptionPane.showMessageDialog(null, colorName + " cannot win the game.");
+	}
+}
@@ -1,12 +1,13 @@
 package viewer;
 
+import ai.HintEngine;
 import application.GameBoard;
 import application.ConsoleIn;
-import application.PlayerToken;
-import application.InvalidCellActionException;
+import application.Move;
 
 /** Class TextGameClient: <br />
  * Provides a text user interface for playing Hurry Up Hedgehog.
+ * Wherever a number is asked for, "hint" suggests a move (see HintEngine).
  * @author Joshua Kovach
  * @version 1.0
  *
@@ -15,11 +16,21 @@ public class TextGameClient {
 	/** provides an error checking scanner utility to get input from the user. */
 	static ConsoleIn scan = new ConsoleIn();
 	
+	/** draws the board after every move */
+	static BoardRenderer renderer = new BoardRenderer();
+	
+	/** suggests moves when a player types "hint" */
+	static HintEngine hints = new HintEngine(System.nanoTime());
+	
 	/** Method main: <br />
 	 * Makes the game playable.  Keeps the loops going through each stage of the game.
-	 * @param args
+	 * @param args - "-ansi" to redraw only the cells that change (on an ANSI terminal)
 	 */
 	public static void main (String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-ansi")) renderer = new BoardRenderer(System.out, true);
+		}
+		
 		/** creates the data board */
 		GameBoard board;
 		
@@ -29,6 +40,7 @@ public class TextGameClient {
 		/** the game will run while playing is true */
 		while (playing) {
 			board = gameBoardSetup();
+			renderer.reset();
 			
 			//loop while placing tokens
 			placeTokens(board);
@@ -38,7 +50,7 @@ public class TextGameClient {
 			//loop through the turns until there is a winner
 			do {
 				playTheGame(board);
-				board.printGame();
+				renderer.render(board);
 			} while ( ! board.getTracker().hasWinner() );
 			System.out.println(board.getTracker().getPlayerColorName(board.getTracker().getWinner()) + 
 					" has won the game!");
@@ -110,215 +122,83 @@ public class TextGameClient {
 	private static void placeTokens(GameBoard board) {
 		board.setPlacementStage();
 		do {				
-			//keep trying until it's been placed
-			while (! board.stackToken(scan.readInt("Player " + board.getCurrentPlayer() + ", choose a row to place token " + (board.getCurrentRound() + 1)), 0, 
-					board.getTracker().getTokensForPlayer(board.getCurrentPlayer())[board.getCurrentRound()]) ) {
+			//keep trying until it's been placed (the board then updates the turn)
+			while (! board.applyMove(Move.encode(Move.PLACE, readChoice(board, "Player " + board.getCurrentPlayer() 
+					+ ", choose a row to place token " + (board.getCurrentRound() + 1)), 0)) ) {
 				System.out.println("Couldn't place token: please choose a different location.");
 			}
-			board.updateTurnCounter();
-			board.printGame();
+			renderer.render(board);
 			
 			
-		} while (board.getCurrentRound() < board.getTracker().getTokenCount());
-		board.setGameStage();
+		} while (board.getStage() == board.PLACEMENT);
 	}
 	
 	/** Method playTheGame: <br />
-	 * Builds the menus and takes input from the user to move tokens
-	 * across the board until a winner is found.
+	 * Builds a menu of the legal moves for the current player and 
+	 * takes input from the user to make one of them.  Each turn is a 
+	 * side move (or skipping it) followed by a forward move; the board
+	 * passes the turn to the next player when the forward move is made
+	 * or when nothing can move forward.
 	 * @param board
 	 */
 	private static void playTheGame(GameBoard board) {
-		PlayerToken [] token = board.getTracker().getTokensForPlayer(board.getCurrentPlayer());
-		String movableTokenMenu = "";
-		String moveMenu = "";
+		int[] moves = new int[board.getMaxMoveCount()];
+		int moveCount = board.generateMoves(moves);
+		StringBuilder moveMenu = new StringBuilder();
 		int choice = -1;
 		
-		
 		System.out.println("Die Roll: " + board.getForwardRow());
 		
-		//Build the menu of movable tokens
-		System.out.println("Movable hedgehogs for player " + board.getCurrentPlayer() + ":");
-		for (int i = 0; i < token.length; i++) {
-			if ( ! board.sideWasMoved() ) {
-				if (token[i].isEnabled()) {
-					movableTokenMenu += (i + ". Hedgehog at " + token[i].getLocationString() + "[Sideways]");
-					if (token[i].getLocationRow() == board.getForwardRow()) movableTokenMenu += "[Foward]";
-					movableTokenMenu += "\n";
-				}
-			}
-			else {
-				if (token[i].isEnabled() && token[i].getLocationRow() == board.getForwardRow()) {
-					movableTokenMenu += (i + ". Hedgehog at " + token[i].getLocationString() + "[Forward]\n");
-				}
+		//Build the menu of legal moves
+		System.out.println("Moves for player " + board.getCurrentPlayer() + ":");
+		for (int i = 0; i < moveCount; i++) {
+			moveMenu.append(i).append(". ").append(Move.toString(moves[i]));
+			if (Move.getType(moves[i]) == Move.FORWARD) {
+				moveMenu.append(" [Player ")
+						.append(board.topTokenOrNull(Move.getRow(moves[i]), Move.getCol(moves[i])).getPlayerID())
+						.append(']');
 			}
+			moveMenu.append('\n');
 		}
 		
-		movableTokenMenu += "9. Skip Side Move\nPlease choose a token to move";
-		
-		//Get the players choice for token to move
-		while ((choice < 0 || (choice > token.length - 1 && choice != 9) || (choice != 9 && !token[choice].isEnabled()))) {
-			choice = scan.readInt(movableTokenMenu);
-			if ((choice < 0 || (choice > token.length - 1 && choice != 9) || (choice != 9 && !token[choice].isEnabled()))) {
+		//Get the player's choice of move
+		while (choice < 0 || choice > moveCount - 1) {
+			choice = readChoice(board, moveMenu + "Please choose a move.");
+			if (choice < 0 || choice > moveCount - 1) {
 				System.out.print("Invalid selection.\n");
 			}
 		}
-		if (choice != 9) {
-			//Build menu of possible moves
-			int moveOption = -1;
-			int moveChoice = -1; //ensure entry into the move choice loop
-			
-			if (token[choice].getLocationRow() < board.getRows() - 1) {
-				moveOption++;
-				moveMenu += (moveOption + ". Move Down\n");
-			}
-			if (token[choice].getLocationRow() > 0) {
-				moveOption++;
-				moveMenu += (moveOption + ". Move Up\n");
-			}
-			if (token[choice].getLocationRow() == board.getForwardRow()) {
-				moveOption++;
-				moveMenu += (moveOption + ". Move Forward\n");
-			}
-			
-			//get the player's moves
-			while (moveChoice < 0 || moveChoice > moveOption) {
-				moveChoice = scan.readInt(moveMenu + "Please choose a move.");
-				if (moveChoice < 0 || moveChoice > moveOption) {
-					System.out.println("Invalid move.");
-				}
-			}
-			
-			//process the move choices
 		
-			if (moveOption == 0) {
-				if (token[choice].getLocationRow() < board.getRows() - 1) {
-					try {
-						board.moveTokenDown(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (token[choice].getLocationRow() > 0) {
-					try {
-						board.moveTokenUp(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (token[choice].getLocationRow() == board.getForwardRow()) {
-					try {
-						board.moveTokenForward(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-			}
-			else if (moveOption == 1) {
-				if (token[choice].getLocationRow() < board.getRows() - 1 && token[choice].getLocationRow() > 0) {
-					try {
-						if (moveChoice == 0) board.moveTokenDown(token[choice].getLocationRow(), token[choice].getLocationCol());
-						else if (moveChoice == 1) board.moveTokenUp(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (token[choice].getLocationRow() < board.getRows() - 1 && token[choice].getLocationRow() == board.getForwardRow()) {
-					try {
-						if (moveChoice == 0) board.moveTokenDown(token[choice].getLocationRow(), token[choice].getLocationCol());
-						else if (moveChoice == 1) board.moveTokenForward(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (token[choice].getLocationRow() > 0 && token[choice].getLocationRow() == board.getForwardRow()) {
-					try {
-						if (moveChoice == 0) board.moveTokenUp(token[choice].getLocationRow(), token[choice].getLocationCol());
-						else if (moveChoice == 1) board.moveTokenForward(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-			}
-			else if (moveOption == 2) {
-				if (moveChoice == 0) {
-					try {
-						board.moveTokenDown(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (moveChoice == 1) {
-					try {
-						board.moveTokenUp(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-				else if (moveChoice == 2) {
-					try {
-						board.moveTokenForward(token[choice].getLocationRow(), token[choice].getLocationCol());
-					}
-					catch (InvalidCellActionException ica) {
-						System.out.println(ica.getMessage());
-					}
-				}
-			}
+		int turn = board.getTurnCounter();
+		board.applyMove(moves[choice]);
+		//announce a player who can no longer win once their turn is over
+		if (board.getTurnCounter() != turn) {
+			board.canPlayerWin();
 		}
-		else board.setSideMoved();
-		
-		forwardMoveMenu(board);
-		
-		
 	}
 	
-	/** Method forwardMoveMenu: <br />
-	 * If a forward move has already been performed, passes the board to a new player.
-	 * Otherwise, creates a menu of forward movable tokens for the end of the turn.
-	 * @param board - pass the board for manipulation
+	/** Method readChoice: <br />
+	 * Reads a number from the player.  If the player types "hint" instead,
+	 * prints a suggested move and asks again.
+	 * @param board - the game, for hints
+	 * @param prompt - what to ask
+	 * @return the number entered
 	 */
-	private static void forwardMoveMenu(GameBoard board) {
-		PlayerToken [] forwardToken;
-		board.printGame();
-		
-		//if there are no tokens to move, end the turn, otherwise get
-		//the movement command for one of the tokens to move forward and update the turn
-		if ( board.sideWasMoved() && ! board.forwardWasMoved() ) {
-			forwardToken = board.getTokensFromForwardRow();
-			if (forwardToken.length == 0) {
-				board.canPlayerWin();
-				board.updateTurnCounter();
+	private static int readChoice(GameBoard board, String prompt) {
+		while (true) {
+			String input = scan.readWord(prompt + " [or \"hint\"]");
+			if (input.equalsIgnoreCase("hint")) {
+				int move = hints.suggestMove(board, HintEngine.HINT_MILLIS);
+				System.out.println(String.format("Hint: %s (%s, %.0f ms)", Move.toString(move),
+						HintEngine.TIER_NAMES[hints.getLastTier()], hints.getLastMillis()));
 			}
 			else {
-				System.out.println("Die Roll: " + board.getForwardRow());
-				String forwardMenu = "Player " + board.getCurrentPlayer() + ", choose a hedgehog to advance:\n";
-				int forwardOption = -1;
-				for (int i = 0; i < forwardToken.length; i++) {
-					forwardMenu += (i + ". " + "[Player " + forwardToken[i].getPlayerID() + "] " 
-							+ forwardToken[i].getLocationString() + "\n");
-				}
-				
-				while (forwardOption < 0 || forwardOption > forwardToken.length - 1) {
-					forwardOption = scan.readInt(forwardMenu + "Choose a hedgehog to advance.");
-					if (forwardOption < 0 || forwardOption > forwardToken.length - 1) {
-						System.out.println("Invalid hedgehog.\n");
-					}
-				}
 				try {
-					board.moveTokenForward(forwardToken[forwardOption].getLocationRow(), forwardToken[forwardOption].getLocationCol());
+					return Integer.parseInt(input);
 				}
-				catch (InvalidCellActionException ica) {
-					System.out.println(ica.getMessage());
+				catch (NumberFormatException nfe) {
+					System.out.println("Input \"" + input + "\" is not an integer.");
 				}
-				board.canPlayerWin();
 			}
 		}
 	}